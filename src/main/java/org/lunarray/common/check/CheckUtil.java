@@ -17,6 +17,7 @@
  */
 package org.lunarray.common.check;
 
+import java.nio.Buffer;
 import java.util.List;
 
 /**
@@ -39,6 +40,136 @@ public enum CheckUtil {
 		/* No implementation. */
 	}
 
+	/**
+	 * Check whether the index is within the bounds of the buffer limit.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param buffer
+	 *            The buffer.
+	 * @return True if the index is below the buffer limit.
+	 */
+	public static boolean checkBounds(final int index, final Buffer buffer) {
+		return CheckUtil.checkBounds(index, buffer.limit());
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final boolean[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final byte[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final char[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final double[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final float[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final int[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final long[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the bounds of the array.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param array
+	 *            The array.
+	 * @return True if the index is in the array range.
+	 */
+	public static boolean checkBounds(final int index, final short[] array) {
+		return CheckUtil.checkBounds(index, array.length);
+	}
+
+	/**
+	 * Check whether the index is within the range of the given length.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param length
+	 *            The length.
+	 * @return True if the index is in the range.
+	 */
+	public static boolean checkBounds(final int index, final int length) {
+		return (index >= CheckUtil.RANGE_LOWER_BOUND) && (index < length);
+	}
+
 	/**
 	 * Check whether the index is within the bounds of the list.
 	 * 
@@ -67,6 +198,67 @@ public enum CheckUtil {
 		return (index >= CheckUtil.RANGE_LOWER_BOUND) && (index < array.length);
 	}
 
+	/**
+	 * Check whether the index is within the range of the given length.
+	 * 
+	 * @param index
+	 *            The index.
+	 * @param length
+	 *            The length.
+	 * @return True if the index is in the range.
+	 */
+	public static boolean checkBounds(final long index, final long length) {
+		return (index >= CheckUtil.RANGE_LOWER_BOUND) && (index < length);
+	}
+
+	/**
+	 * Check whether the sub-range from the index with the given size is
+	 * within the bounds of the buffer limit.
+	 * 
+	 * @param fromIndex
+	 *            The start of the sub-range.
+	 * @param size
+	 *            The size of the sub-range.
+	 * @param buffer
+	 *            The buffer.
+	 * @return True if the sub-range is below the buffer limit.
+	 */
+	public static boolean checkFromIndexSize(final int fromIndex, final int size, final Buffer buffer) {
+		return CheckUtil.checkFromIndexSize(fromIndex, size, buffer.limit());
+	}
+
+	/**
+	 * Check whether the sub-range from the index with the given size is
+	 * within the range of the given length. Does not overflow.
+	 * 
+	 * @param fromIndex
+	 *            The start of the sub-range.
+	 * @param size
+	 *            The size of the sub-range.
+	 * @param length
+	 *            The length.
+	 * @return True if the sub-range is in the range.
+	 */
+	public static boolean checkFromIndexSize(final int fromIndex, final int size, final int length) {
+		return ((fromIndex | size | length) >= CheckUtil.RANGE_LOWER_BOUND) && (size <= (length - fromIndex));
+	}
+
+	/**
+	 * Check whether the sub-range from the index with the given size is
+	 * within the range of the given length. Does not overflow.
+	 * 
+	 * @param fromIndex
+	 *            The start of the sub-range.
+	 * @param size
+	 *            The size of the sub-range.
+	 * @param length
+	 *            The length.
+	 * @return True if the sub-range is in the range.
+	 */
+	public static boolean checkFromIndexSize(final long fromIndex, final long size, final long length) {
+		return ((fromIndex | size | length) >= CheckUtil.RANGE_LOWER_BOUND) && (size <= (length - fromIndex));
+	}
+
 	/**
 	 * Check if the number is a positive number.
 	 * 
@@ -0,0 +1,228 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics;
+
+import java.lang.reflect.Type;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * A reusable resolver for the generic parameter of a target type, meant to be
+ * held by a call site. It keeps a small inline cache of the last seen entity
+ * types and falls back to its {@link GenericsResolver} on a miss. A resolver
+ * constructed without one falls back to the default resolver of the
+ * {@link GenericsUtil} at the time of the miss, so it follows
+ * {@link GenericsUtil#setResolver(GenericsResolver)}. Cached entity types
+ * are only used while the resolver they came from is still the fallback and
+ * its cache was not invalidated since.
+ * 
+ * @author agent (agent@local)
+ */
+public final class EntityTypeResolver {
+
+	/** The generic parameter. */
+	private final transient int genericParameter;
+	/** The primary cache entry. */
+	private transient CacheEntry primary;
+	/** The resolver, null for the default resolver. */
+	private final transient GenericsResolver resolver;
+	/** The secondary cache entry. */
+	private transient CacheEntry secondary;
+	/** The target type. */
+	private final transient Class<?> targetClazz;
+
+	/**
+	 * Constructs the resolver, falling back to the default resolver. The
+	 * default resolver is looked up on every miss, not bound at construction.
+	 * 
+	 * @param targetClazz
+	 *            The target of which the generic parameter is to be resolved.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 */
+	public EntityTypeResolver(final Class<?> targetClazz, final int genericParameter) {
+		this(null, targetClazz, genericParameter);
+	}
+
+	/**
+	 * Constructs the resolver, bound to the given resolver.
+	 * 
+	 * @param resolver
+	 *            The resolver to fall back to, or null for the default
+	 *            resolver at the time of a miss.
+	 * @param targetClazz
+	 *            The target of which the generic parameter is to be resolved.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 */
+	public EntityTypeResolver(final GenericsResolver resolver, final Class<?> targetClazz, final int genericParameter) {
+		this.resolver = resolver;
+		this.targetClazz = targetClazz;
+		this.genericParameter = genericParameter;
+	}
+
+	/**
+	 * Gets the value for the generic parameter field.
+	 * 
+	 * @return The value for the generic parameter field.
+	 */
+	public int getGenericParameter() {
+		return this.genericParameter;
+	}
+
+	/**
+	 * Gets the value for the target clazz field.
+	 * 
+	 * @return The value for the target clazz field.
+	 */
+	public Class<?> getTargetClazz() {
+		return this.targetClazz;
+	}
+
+	/**
+	 * Resolves the generic parameter of the target for the given entity type.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @return The type of the generic parameter of the target.
+	 * @see GenericsResolver#getEntityGenericType(Class, int, Class)
+	 */
+	public Type resolve(final Class<?> clazz) {
+		GenericsResolver fallback = this.resolver;
+		if (CheckUtil.isNull(fallback)) {
+			fallback = GenericsUtil.getResolver();
+		}
+		final int generation = fallback.getGeneration();
+		// Entries are immutable, a racy read sees either null or a full entry.
+		final CacheEntry first = this.primary;
+		Type result;
+		if (!CheckUtil.isNull(first) && first.matches(clazz, fallback, generation)) {
+			result = first.result;
+		} else {
+			final CacheEntry second = this.secondary;
+			if (!CheckUtil.isNull(second) && second.matches(clazz, fallback, generation)) {
+				result = second.result;
+			} else {
+				result = this.resolveMiss(clazz, fallback, generation);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Tests if an entry may be replaced.
+	 * 
+	 * @param entry
+	 *            The entry, may be null.
+	 * @param fallback
+	 *            The current fallback resolver.
+	 * @param generation
+	 *            The current generation of its cache.
+	 * @return True if and only if the entry is free or stale.
+	 */
+	private static boolean isReplaceable(final CacheEntry entry, final GenericsResolver fallback, final int generation) {
+		return CheckUtil.isNull(entry) || !entry.isCurrent(fallback, generation);
+	}
+
+	/**
+	 * Resolves a cache miss and fills a free or stale entry, if any.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param fallback
+	 *            The resolver to fall back to.
+	 * @param generation
+	 *            The generation of its cache, taken before resolving.
+	 * @return The type of the generic parameter of the target.
+	 */
+	private Type resolveMiss(final Class<?> clazz, final GenericsResolver fallback, final int generation) {
+		final Type result = fallback.getEntityGenericType(clazz, this.genericParameter, this.targetClazz);
+		final CacheEntry entry = new CacheEntry(clazz, result, fallback, generation);
+		// Once both entries are taken the call site is megamorphic.
+		if (EntityTypeResolver.isReplaceable(this.primary, fallback, generation)) {
+			this.primary = entry;
+		} else if (EntityTypeResolver.isReplaceable(this.secondary, fallback, generation)) {
+			this.secondary = entry;
+		}
+		return result;
+	}
+
+	/**
+	 * An inline cache entry.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class CacheEntry {
+		/** The entity type. */
+		private final transient Class<?> clazz;
+		/** The cache generation of the resolver. */
+		private final transient int generation;
+		/** The resolver the result came from. */
+		private final transient GenericsResolver resolver;
+		/** The result type. */
+		private final transient Type result;
+
+		/**
+		 * Constructs the entry.
+		 * 
+		 * @param clazz
+		 *            The entity type.
+		 * @param result
+		 *            The result type.
+		 * @param resolver
+		 *            The resolver the result came from.
+		 * @param generation
+		 *            The cache generation of the resolver before resolving.
+		 */
+		public CacheEntry(final Class<?> clazz, final Type result, final GenericsResolver resolver, final int generation) {
+			this.clazz = clazz;
+			this.result = result;
+			this.resolver = resolver;
+			this.generation = generation;
+		}
+
+		/**
+		 * Tests if the entry is current.
+		 * 
+		 * @param fallback
+		 *            The current fallback resolver.
+		 * @param current
+		 *            The current generation of its cache.
+		 * @return True if and only if the result came from the fallback at
+		 *         its current generation.
+		 */
+		public boolean isCurrent(final GenericsResolver fallback, final int current) {
+			return (this.resolver == fallback) && (this.generation == current);
+		}
+
+		/**
+		 * Tests if the entry holds a current result for the entity type.
+		 * 
+		 * @param entityClazz
+		 *            The entity type.
+		 * @param fallback
+		 *            The current fallback resolver.
+		 * @param current
+		 *            The current generation of its cache.
+		 * @return True if and only if the entry may be used.
+		 */
+		public boolean matches(final Class<?> entityClazz, final GenericsResolver fallback, final int current) {
+			return (this.clazz == entityClazz) && this.isCurrent(fallback, current);
+		}
+	}
+}
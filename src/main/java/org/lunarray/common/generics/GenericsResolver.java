@@ -0,0 +1,1230 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.cache.CachedEntityType;
+import org.lunarray.common.generics.cache.ResolutionCache;
+import org.lunarray.common.generics.cache.TypePath;
+import org.lunarray.common.generics.event.ResolutionEvent;
+import org.lunarray.common.generics.event.ResolutionEvents;
+import org.lunarray.common.generics.warmup.ResolutionRecorder;
+
+/**
+ * A resolver for generics. Every resolver owns its own caches, so separate
+ * resolvers may be used for separate class loaders, such as tenants of a
+ * host. A resolver should be closed when it is discarded, as the thread local
+ * tables of its cache otherwise keep the cached classes reachable.
+ * 
+ * @author Pal Hargitai (pal@lunarray.org)
+ * @author agent (agent@local)
+ */
+public final class GenericsResolver {
+
+	/**
+	 * The erasures of the type parameters of a class. As with the caches of
+	 * the {@link MemberScanner}, classes from parent loaders keep their entry
+	 * and the loader of this library alive.
+	 */
+	private static final ClassValue<Class<?>[]> ERASURES = new ClassValue<Class<?>[]>() {
+		/** {@inheritDoc} */
+		@Override
+		protected Class<?>[] computeValue(final Class<?> type) {
+			final TypeVariable<?>[] typeParameters = MemberScanner.typeParameters(type);
+			final Class<?>[] erasures = new Class<?>[typeParameters.length];
+			for (int i = 0; i < typeParameters.length; i = i + 1) {
+				erasures[i] = GenericsResolver.guessClazz(typeParameters[i], null);
+			}
+			return erasures;
+		}
+	};
+	/** Marker for an absent parameter. */
+	private static final int NO_PARAMETER = -1;
+	/** The entity type cache, null if not caching. */
+	private final transient ResolutionCache resolutionCache;
+	/** The recorder, null if not recording. */
+	private final transient ResolutionRecorder resolutionRecorder;
+
+	/**
+	 * Constructs a resolver that does not cache.
+	 */
+	public GenericsResolver() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a resolver.
+	 * 
+	 * @param resolutionCache
+	 *            The entity type cache, or null to not cache entity types.
+	 */
+	public GenericsResolver(final ResolutionCache resolutionCache) {
+		this(resolutionCache, null);
+	}
+
+	/**
+	 * Constructs a resolver.
+	 * 
+	 * @param resolutionCache
+	 *            The entity type cache, or null to not cache entity types.
+	 * @param resolutionRecorder
+	 *            The recorder of resolved inputs, or null to not record.
+	 */
+	public GenericsResolver(final ResolutionCache resolutionCache, final ResolutionRecorder resolutionRecorder) {
+		this.resolutionCache = resolutionCache;
+		this.resolutionRecorder = resolutionRecorder;
+	}
+
+	/**
+	 * Drops all cached resolutions, including those held by other threads.
+	 */
+	public void close() {
+		if (!CheckUtil.isNull(this.resolutionCache)) {
+			this.resolutionCache.close();
+		}
+	}
+
+	/**
+	 * Creates a resolver for the generic argument of a target type, to be
+	 * reused from a single call site.
+	 * 
+	 * @param targetClazz
+	 *            The target of which the generic parameter is to be resolved.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 * @return The resolver.
+	 */
+	public EntityTypeResolver createEntityTypeResolver(final Class<?> targetClazz, final int genericParameter) {
+		return new EntityTypeResolver(this, targetClazz, genericParameter);
+	}
+
+	/**
+	 * Evicts all cached resolutions depending on classes of the class loader,
+	 * for instance when it is discarded.
+	 * 
+	 * @param loader
+	 *            The class loader.
+	 */
+	public void evict(final ClassLoader loader) {
+		if (!CheckUtil.isNull(this.resolutionCache)) {
+			this.resolutionCache.evict(loader);
+		}
+	}
+
+	/**
+	 * Find the type path leading from the current type to the desired type.
+	 * 
+	 * @param currentType
+	 *            The current type.
+	 * @param clazz
+	 *            The desired type.
+	 * @return The list from current type to desired type.
+	 */
+	public Deque<Type> findTypePath(final Type currentType, final Class<?> clazz) {
+		return this.getTypePath(currentType, clazz).toDeque();
+	}
+
+	/**
+	 * Gets the clazz declaring the typevariable.
+	 * 
+	 * @param declaringClazz
+	 *            The declaring clazz.
+	 * @param target
+	 *            The type variable we're looking for.
+	 * @return The clazz or one of it's declaring classes.
+	 */
+	public Class<?> getDeclaringClass(final Class<?> declaringClazz, final TypeVariable<?> target) {
+		Class<?> source = declaringClazz;
+		boolean equals = false;
+		// Test if we can find the declaring clazz.
+		for (final TypeVariable<?> typeVariable : MemberScanner.typeParameters(declaringClazz)) {
+			if (typeVariable.equals(target)) {
+				equals = true;
+			}
+		}
+		// Search it's declaring clazz.
+		final Class<?> nextDeclaring = declaringClazz.getDeclaringClass();
+		if (!equals && !CheckUtil.isNull(nextDeclaring)) {
+			source = this.getDeclaringClass(nextDeclaring, target);
+		}
+		return source;
+	}
+
+	/**
+	 * Gets the generic argument of an entity type.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 * @param targetClazz
+	 *            The target of which the generic parameter is to be resolved.
+	 * @return The type of the generic parameter of the target.
+	 */
+	public Type getEntityGenericType(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		final ResolutionEvent event = ResolutionEvents.begin();
+		final ResolutionCache cache = this.resolutionCache;
+		CachedEntityType cached = null;
+		if (!CheckUtil.isNull(cache)) {
+			cached = cache.lookup(clazz, genericParameter, targetClazz);
+		}
+		Type typeResult;
+		if (CheckUtil.isNull(cached)) {
+			final ScanDepth depth = new ScanDepth(!CheckUtil.isNull(cache), this.getGeneration());
+			// Get the type path.
+			final TypePath typePath = this.findTypePath(clazz, targetClazz, depth);
+			typeResult = GenericsResolver.traceEntityType(typePath, genericParameter);
+			if (!CheckUtil.isNull(cache)) {
+				depth.visit(targetClazz);
+				cache.store(clazz, genericParameter, targetClazz, typeResult, depth.getVisited(), depth.getGeneration());
+			}
+			if (!CheckUtil.isNull(this.resolutionRecorder)) {
+				this.resolutionRecorder.recordEntityType(clazz, genericParameter, targetClazz);
+			}
+			ResolutionEvents.commit(event, "getEntityGenericType", clazz, targetClazz, genericParameter, typePath.size(), depth.getMaximum(),
+					false);
+		} else {
+			typeResult = cached.getType();
+			ResolutionEvents.commit(event, "getEntityGenericType", clazz, targetClazz, genericParameter, 0, 0, true);
+		}
+		return typeResult;
+	}
+
+	/**
+	 * Gets the generation of the cache of entity types, to tell if cached
+	 * resolutions were invalidated.
+	 * 
+	 * @return The generation, zero if entity types are not cached.
+	 * @see ResolutionCache#getGeneration()
+	 */
+	int getGeneration() {
+		final ResolutionCache cache = this.resolutionCache;
+		int generation = 0;
+		if (!CheckUtil.isNull(cache)) {
+			generation = cache.getGeneration();
+		}
+		return generation;
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param propertyHierarchy
+	 *            The filed hierarachy. Resolved members are removed from it.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	public Type getPropertyGenericType(final Class<?> clazz, final int genericParameter,
+			final Deque<? extends Member> propertyHierarchy) {
+		final MemberCursor cursor = new MemberCursor(new ArrayList<Member>(propertyHierarchy), 0);
+		final Type result = this.getPropertyGenericType(clazz, genericParameter, cursor);
+		GenericsResolver.consume(propertyHierarchy, cursor);
+		return result;
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy. The hierarchy is not modified,
+	 * so it may be shared between threads.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param propertyHierarchy
+	 *            The filed hierarchy.
+	 * @param offset
+	 *            The index of the first member in the hierarchy.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	public Type getPropertyGenericType(final Class<?> clazz, final int genericParameter,
+			final List<? extends Member> propertyHierarchy, final int offset) {
+		return this.getPropertyGenericType(clazz, genericParameter, new MemberCursor(propertyHierarchy, offset));
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param propertyHierarchy
+	 *            The filed hierarchy.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	public Type getPropertyGenericType(final Class<?> clazz, final int genericParameter, final Member... propertyHierarchy) {
+		return this.getPropertyGenericType(clazz, genericParameter, Arrays.asList(propertyHierarchy), 0);
+	}
+
+	/**
+	 * Gets the parameter index this variable is assigned to.
+	 * 
+	 * @param realType
+	 *            The type to find.
+	 * @return The index of this type variables.
+	 */
+	public int getRealParameter(final TypeVariable<?> realType) {
+		int realVariable = -1;
+		final Type type = (Type) realType.getGenericDeclaration();
+		if (type instanceof Class) {
+			final Class<?> clazz = (Class<?>) type;
+			final TypeVariable<?>[] tvs = MemberScanner.typeParameters(clazz);
+			for (int i = 0; i < tvs.length; i = i + 1) {
+				if (realType.equals(tvs[i])) {
+					realVariable = i;
+				}
+			}
+		}
+		return realVariable;
+	}
+
+	/**
+	 * Finds originating type for this field.
+	 * 
+	 * @param properties
+	 *            The fields to look through. Resolved fields are removed from
+	 *            it.
+	 * @return The true type.
+	 */
+	public Type getRealType(final Deque<? extends Member> properties) {
+		final MemberCursor cursor = new MemberCursor(new ArrayList<Member>(properties), 0);
+		final Type result = this.getRealType(cursor);
+		GenericsResolver.consume(properties, cursor);
+		return result;
+	}
+
+	/**
+	 * Finds originating type for this field. The fields are not modified, so
+	 * they may be shared between threads.
+	 * 
+	 * @param properties
+	 *            The fields to look through.
+	 * @param offset
+	 *            The index of the first field.
+	 * @return The true type.
+	 */
+	public Type getRealType(final List<? extends Member> properties, final int offset) {
+		return this.getRealType(new MemberCursor(properties, offset));
+	}
+
+	/**
+	 * Finds originating type for this field.
+	 * 
+	 * @param propertyHierarchy
+	 *            The fields to look through.
+	 * @return The true type.
+	 */
+	public Type getRealType(final Member... propertyHierarchy) {
+		return this.getRealType(Arrays.asList(propertyHierarchy), 0);
+	}
+
+	/**
+	 * Gets the entity type cache, which also holds the cache statistics.
+	 * 
+	 * @return The cache, or null if entity types are not cached.
+	 */
+	public ResolutionCache getResolutionCache() {
+		return this.resolutionCache;
+	}
+
+	/**
+	 * Gets the recorder of resolved inputs.
+	 * 
+	 * @return The recorder, or null if not recording.
+	 */
+	public ResolutionRecorder getResolutionRecorder() {
+		return this.resolutionRecorder;
+	}
+
+	/**
+	 * Gets the variable of the class that represents the variable for the
+	 * field.
+	 * 
+	 * @param property
+	 *            The field to match the variable to.
+	 * @param typeVariable
+	 *            The variable to match.
+	 * @return The variable of the declaring class.
+	 */
+	public TypeVariable<?> getSuperDeclaration(final Member property, final TypeVariable<?> typeVariable) {
+		TypeVariable<?> result = typeVariable;
+		Class<?> declaring = property.getDeclaringType();
+		while (!CheckUtil.isNull(declaring)) {
+			for (final TypeVariable<?> declaringTypeVariable : MemberScanner.typeParameters(declaring)) {
+				if (result.equals(declaringTypeVariable)) {
+					result = declaringTypeVariable;
+				}
+			}
+			declaring = declaring.getDeclaringClass();
+		}
+		return result;
+	}
+
+	/**
+	 * Find the type path leading from the current type to the desired type.
+	 * With a cache, the paths of supertypes are shared between the paths of
+	 * their subtypes.
+	 * 
+	 * @param currentType
+	 *            The current type.
+	 * @param clazz
+	 *            The desired type.
+	 * @return The path from current type to desired type.
+	 */
+	public TypePath getTypePath(final Type currentType, final Class<?> clazz) {
+		final ResolutionEvent event = ResolutionEvents.begin();
+		final ScanDepth depth = new ScanDepth(false, this.getGeneration());
+		final TypePath path = this.findTypePath(currentType, clazz, depth);
+		ResolutionEvents.commit(event, "findTypePath", currentType, clazz, GenericsResolver.NO_PARAMETER, path.size(), depth.getMaximum(),
+				false);
+		return path;
+	}
+
+	/**
+	 * Guesses the clazz of a type. This is the erasure of the type, type
+	 * variables declared by a class are only resolved once.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @return The clazz.
+	 */
+	public Class<?> guessClazz(final Type type) {
+		Class<?> result = null;
+		if (type instanceof TypeVariable<?>) {
+			final TypeVariable<?> typeVar = (TypeVariable<?>) type;
+			final Object declaration = typeVar.getGenericDeclaration();
+			if (declaration instanceof Class) {
+				final Class<?> declaringClazz = (Class<?>) declaration;
+				final TypeVariable<?>[] typeParameters = MemberScanner.typeParameters(declaringClazz);
+				for (int i = 0; CheckUtil.isNull(result) && (i < typeParameters.length); i = i + 1) {
+					if (typeParameters[i].equals(typeVar)) {
+						result = GenericsResolver.ERASURES.get(declaringClazz)[i];
+					}
+				}
+			}
+		}
+		if (CheckUtil.isNull(result)) {
+			result = GenericsResolver.guessClazz(type, null);
+		}
+		return result;
+	}
+
+	/**
+	 * Evicts all cached resolutions depending on the class, for instance when
+	 * it is redefined.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 */
+	public void invalidate(final Class<?> clazz) {
+		if (!CheckUtil.isNull(this.resolutionCache)) {
+			this.resolutionCache.invalidate(clazz);
+		}
+	}
+
+	/**
+	 * Trace to the most specific type of the field.
+	 * 
+	 * @param property
+	 *            The field to look for.
+	 * @param typePath
+	 *            The type path.
+	 * @param originatingIndex
+	 *            The originating index.
+	 * @return The most specific type.
+	 */
+	public Type traceType(final Member property, final Deque<Type> typePath, final int originatingIndex) {
+		return GenericsResolver.traceType(property, typePath.descendingIterator(), originatingIndex);
+	}
+
+	/**
+	 * Removes the members the cursor moved past from the hierarchy.
+	 * 
+	 * @param propertyHierarchy
+	 *            The hierarchy.
+	 * @param cursor
+	 *            The cursor.
+	 */
+	private static void consume(final Deque<? extends Member> propertyHierarchy, final MemberCursor cursor) {
+		for (int i = 0; i < cursor.getPosition(); i = i + 1) {
+			propertyHierarchy.pop();
+		}
+	}
+
+	/**
+	 * Find the type path leading from a class to the desired type. Cached
+	 * paths are reused, new paths extend the path of the supertype.
+	 * 
+	 * @param currentClazz
+	 *            The current class.
+	 * @param clazz
+	 *            The desired type.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The path from current class to desired type.
+	 */
+	private TypePath findClassPath(final Class<?> currentClazz, final Class<?> clazz, final ScanDepth depth) {
+		final ResolutionCache cache = this.resolutionCache;
+		TypePath path = null;
+		if (!CheckUtil.isNull(cache)) {
+			path = cache.lookupPath(currentClazz, clazz);
+		}
+		if (CheckUtil.isNull(path)) {
+			depth.visit(currentClazz);
+			path = this.processPath(currentClazz, clazz, depth).prepend(currentClazz);
+			if (!CheckUtil.isNull(cache)) {
+				path = cache.storePath(currentClazz, clazz, path, depth.getGeneration());
+			}
+		} else {
+			// The classes on a cached path were not scanned.
+			for (final Type type : path) {
+				if (type instanceof Class) {
+					depth.visit((Class<?>) type);
+				}
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Trace to the most specific type of the field.
+	 * 
+	 * @param property
+	 *            The field to look for.
+	 * @param iterator
+	 *            The type path, from the last type to the first.
+	 * @param originatingIndex
+	 *            The originating index.
+	 * @return The most specific type.
+	 */
+	private static Type traceType(final Member property, final Iterator<Type> iterator, final int originatingIndex) {
+		final ParameterResult result = new ParameterResult();
+		result.setIndex(originatingIndex);
+		Type typeResult = result.getResult();
+		while (iterator.hasNext() && !(typeResult instanceof Class)) {
+			final Type type = iterator.next();
+			if (CheckUtil.isNull(typeResult)) {
+				result.setResult(GenericsResolver.processNoResult(originatingIndex, result.getIndex(), type));
+			} else {
+				GenericsResolver.processExistingResult(result, type);
+			}
+		}
+		typeResult = result.getResult();
+		if (typeResult instanceof TypeVariable<?>) {
+			final Type type = property.getGenericType();
+			if (type instanceof ParameterizedType) {
+				final ParameterizedType parameterizedType = (ParameterizedType) type;
+				result.setResult(parameterizedType.getActualTypeArguments()[result.getIndex()]);
+			}
+		}
+		return result.getResult();
+	}
+
+	/**
+	 * Find the type path leading from the current type to the desired type.
+	 * 
+	 * @param currentType
+	 *            The current type.
+	 * @param clazz
+	 *            The desired type.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The list from current type to desired type.
+	 */
+	private TypePath findTypePath(final Type currentType, final Class<?> clazz, final ScanDepth depth) {
+		depth.enter();
+		TypePath path = TypePath.EMPTY;
+		if (!clazz.equals(currentType)) {
+			// If the clazz is a Class, look if we can find the clazz.
+			if (currentType instanceof Class) {
+				path = this.findClassPath((Class<?>) currentType, clazz, depth);
+			} else if (currentType instanceof ParameterizedType) {
+				// Search the raw type.
+				final ParameterizedType parameterizedType = (ParameterizedType) currentType;
+				path = this.findTypePath(parameterizedType.getRawType(), clazz, depth).prepend(currentType);
+			} else {
+				path = path.prepend(currentType);
+			}
+		}
+		depth.exit();
+		return path;
+	}
+
+	/**
+	 * Gets the type variable match.
+	 * 
+	 * @param clazz
+	 *            The type.
+	 * @param types
+	 *            The super variables.
+	 * @param result
+	 *            The result.
+	 */
+	private static void getClassMatch(final Class<?> clazz, final Type[] types, final ParameterResult result) {
+		for (int i = 0; i < types.length; i = i + 1) {
+			if (types[i].equals(result.getResult())) {
+				result.setIndex(i);
+				result.setResult(types[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the type variable match.
+	 * 
+	 * @param clazz
+	 *            The type.
+	 * @param typeVariableSuper
+	 *            The super variables.
+	 * @param result
+	 *            The result.
+	 */
+	private static void getClassMatch(final Class<?> clazz, final TypeVariable<?>[] typeVariableSuper, final ParameterResult result) {
+		for (int i = 0; i < typeVariableSuper.length; i = i + 1) {
+			if (typeVariableSuper[i].equals(result.getResult())) {
+				result.setIndex(i);
+				result.setResult(typeVariableSuper[i]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param cursor
+	 *            The cursor over the filed hierarchy.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	private Type getPropertyGenericType(final Class<?> clazz, final int genericParameter, final MemberCursor cursor) {
+		final ResolutionEvent event = ResolutionEvents.begin();
+		final ScanDepth depth = new ScanDepth(false, this.getGeneration());
+		final Class<?> rootType = cursor.getRootType();
+		final int pathLength = cursor.getRemaining();
+		if (!CheckUtil.isNull(this.resolutionRecorder)) {
+			this.resolutionRecorder.recordPropertyGenericType(clazz, genericParameter, cursor.getRemainingMembers());
+		}
+		final Type result = this.getPropertyGenericType(clazz, genericParameter, cursor, depth);
+		ResolutionEvents.commit(event, "getPropertyGenericType", rootType, clazz, genericParameter, pathLength, depth.getMaximum(), false);
+		return result;
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param cursor
+	 *            The cursor over the filed hierarchy.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	private Type getPropertyGenericType(final Class<?> clazz, final int genericParameter, final MemberCursor cursor,
+			final ScanDepth depth) {
+		depth.enter();
+		Type result = null;
+		if (!cursor.isEmpty()) {
+			// First field.
+			final Member property = cursor.next();
+			if (!CheckUtil.isNull(property)) {
+				result = this.processProperty(clazz, genericParameter, cursor, property, depth);
+			}
+		}
+		depth.exit();
+		return result;
+	}
+
+	/**
+	 * Finds originating type for this field.
+	 * 
+	 * @param cursor
+	 *            The cursor over the fields to look through.
+	 * @return The true type.
+	 */
+	private Type getRealType(final MemberCursor cursor) {
+		final ResolutionEvent event = ResolutionEvents.begin();
+		final ScanDepth depth = new ScanDepth(false, this.getGeneration());
+		final Class<?> rootType = cursor.getRootType();
+		final int pathLength = cursor.getRemaining();
+		if (!CheckUtil.isNull(this.resolutionRecorder)) {
+			this.resolutionRecorder.recordRealType(cursor.getRemainingMembers());
+		}
+		final Type result = this.getRealType(cursor, depth);
+		ResolutionEvents.commit(event, "getRealType", rootType, null, GenericsResolver.NO_PARAMETER, pathLength, depth.getMaximum(), false);
+		return result;
+	}
+
+	/**
+	 * Finds originating type for this field.
+	 * 
+	 * @param cursor
+	 *            The cursor over the fields to look through.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The true type.
+	 */
+	private Type getRealType(final MemberCursor cursor, final ScanDepth depth) {
+		depth.enter();
+		final Member property = cursor.next();
+		final Type fieldType = property.getGenericType();
+		Type result = null;
+		if (fieldType instanceof TypeVariable) {
+			final TypeVariable<?> typeVariable = (TypeVariable<?>) fieldType;
+			final Class<?> declaringType = this.getDeclaringClass(property.getDeclaringType(), typeVariable);
+			final TypeVariable<?> superTypeVariable = this.getSuperDeclaration(property, typeVariable);
+			final int param = this.getRealParameter(superTypeVariable);
+			result = this.getPropertyGenericType(declaringType, param, cursor, depth);
+		} else if (fieldType instanceof Class) {
+			result = fieldType;
+		} else if (fieldType instanceof ParameterizedType) {
+			final ParameterizedType pType = (ParameterizedType) fieldType;
+			result = pType.getRawType();
+		}
+		depth.exit();
+		return result;
+	}
+
+	/**
+	 * Guesses the clazz of a type.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @param visiting
+	 *            The type variables being resolved, may be null.
+	 * @return The clazz.
+	 */
+	private static Class<?> guessClazz(final Type type, final List<TypeVariable<?>> visiting) {
+		Class<?> result;
+		if (type instanceof Class) {
+			result = (Class<?>) type;
+		} else if (type instanceof ParameterizedType) {
+			final ParameterizedType paramType = (ParameterizedType) type;
+			result = GenericsResolver.guessClazz(paramType.getRawType(), visiting);
+		} else if (type instanceof GenericArrayType) {
+			final GenericArrayType arrayType = (GenericArrayType) type;
+			final Class<?> componentClazz = GenericsResolver.guessClazz(arrayType.getGenericComponentType(), visiting);
+			result = Array.newInstance(componentClazz, 0).getClass();
+		} else if (type instanceof TypeVariable<?>) {
+			final TypeVariable<?> typeVar = (TypeVariable<?>) type;
+			List<TypeVariable<?>> visited = visiting;
+			if (CheckUtil.isNull(visited)) {
+				visited = new ArrayList<TypeVariable<?>>();
+			}
+			if (visited.contains(typeVar)) {
+				// The bounds are cyclic.
+				result = Object.class;
+			} else {
+				visited.add(typeVar);
+				result = GenericsResolver.guessClazz(typeVar.getBounds()[0], visited);
+			}
+		} else if (type instanceof WildcardType) {
+			final WildcardType wildType = (WildcardType) type;
+			result = GenericsResolver.guessClazz(wildType.getUpperBounds()[0], visiting);
+		} else {
+			result = Object.class;
+		}
+		return result;
+	}
+
+	/**
+	 * Handle type variable.
+	 * 
+	 * @param cursor
+	 *            The cursor over the hierarchy.
+	 * @param property
+	 *            The handle property.
+	 * @param currentType
+	 *            The current type.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The property type.
+	 */
+	private Type handleTypeVariable(final MemberCursor cursor, final Member property, final Type currentType, final ScanDepth depth) {
+		Type result = currentType;
+		// If it's a variable.
+		if ((result instanceof TypeVariable) && !cursor.isEmpty()) {
+			// Match to parent variable
+			final TypeVariable<?> typeVariable = (TypeVariable<?>) result;
+			final Class<?> declaringClass = this.getDeclaringClass(property.getDeclaringType(), typeVariable);
+			int index = -1;
+			final TypeVariable<?>[] typeVariables = MemberScanner.typeParameters(declaringClass);
+			for (int iterator = 0; iterator < typeVariables.length; iterator = iterator + 1) {
+				if (typeVariables[iterator].equals(typeVariable)) {
+					index = iterator;
+				}
+			}
+			if (GenericsResolver.isPositive(index)) {
+				// If resolvable, resolve.
+				result = this.getPropertyGenericType(declaringClass, index, cursor, depth);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Make sure the number is positive.
+	 * 
+	 * @param number
+	 *            The number.
+	 * @return True if the number is positive.
+	 */
+	private static boolean isPositive(final int number) {
+		return number >= 0;
+	}
+
+	/**
+	 * Process an existing result.
+	 * 
+	 * @param result
+	 *            The result.
+	 * @param type
+	 *            The result type.
+	 */
+	private static void processExistingResult(final ParameterResult result, final Type type) {
+		if (type instanceof Class) {
+			final Class<?> clazz = (Class<?>) type;
+			final TypeVariable<?>[] typeVariableSuper = MemberScanner.typeParameters(clazz);
+			GenericsResolver.getClassMatch(clazz, typeVariableSuper, result);
+		} else if (type instanceof ParameterizedType) {
+			final ParameterizedType parameterizedType = (ParameterizedType) type;
+			final Class<?> clazz = (Class<?>) parameterizedType.getRawType();
+			Type[] types = MemberScanner.typeParameters(clazz);
+			GenericsResolver.getClassMatch(clazz, types, result);
+			types = parameterizedType.getActualTypeArguments();
+			GenericsResolver.getClassMatch(clazz, types, result);
+			final Type actualType = parameterizedType.getActualTypeArguments()[result.getIndex()];
+			if (actualType instanceof Class) {
+				result.setResult(actualType);
+			} else if (actualType instanceof ParameterizedType) {
+				final ParameterizedType actualParameterizedType = (ParameterizedType) actualType;
+				result.setResult(actualParameterizedType.getRawType());
+			}
+		}
+	}
+
+	/**
+	 * Processes the interfaces.
+	 * 
+	 * @param clazz
+	 *            The super clazz.
+	 * @param currentClazz
+	 *            The current clazz.
+	 * @return The matching interfaces.
+	 */
+	private static TypePath processInterfaces(final Class<?> clazz, final Class<?> currentClazz) {
+		final Type[] interfaces = MemberScanner.genericInterfaces(currentClazz);
+		TypePath path = TypePath.EMPTY;
+		for (int i = interfaces.length - 1; i >= 0; i = i - 1) {
+			if (interfaces[i] instanceof ParameterizedType) {
+				final ParameterizedType parameterizedType = (ParameterizedType) interfaces[i];
+				if (clazz.equals(parameterizedType.getRawType())) {
+					path = path.prepend(parameterizedType);
+				}
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Processing step with no results.
+	 * 
+	 * @param originatingIndex
+	 *            The first index.
+	 * @param currentIndex
+	 *            The current index.
+	 * @param type
+	 *            The type.
+	 * @return The new type.
+	 */
+	private static Type processNoResult(final int originatingIndex, final int currentIndex, final Type type) {
+		Type result = null;
+		if (type instanceof Class) {
+			final Class<?> clazz = (Class<?>) type;
+			if (MemberScanner.typeParameters(clazz).length > originatingIndex) {
+				result = MemberScanner.typeParameters(clazz)[currentIndex];
+			}
+		} else if (type instanceof ParameterizedType) {
+			final ParameterizedType parameterizedType = (ParameterizedType) type;
+			final Type[] types = parameterizedType.getActualTypeArguments();
+			if (types.length > originatingIndex) {
+				result = types[currentIndex];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Process the path.
+	 * 
+	 * @param currentType
+	 *            The current type.
+	 * @param clazz
+	 *            The type
+	 * @param depth
+	 *            The scan depth.
+	 * @return The path following the current type.
+	 */
+	private TypePath processPath(final Class<?> currentType, final Class<?> clazz, final ScanDepth depth) {
+		final Class<?> currentClazz = currentType;
+		TypePath path = GenericsResolver.processInterfaces(clazz, currentClazz);
+		// We haven't found it yet, try the superclasses.
+		final Type superClass = currentClazz.getGenericSuperclass();
+		if (path.isEmpty() && !CheckUtil.isNull(superClass)) {
+			path = this.findTypePath(superClass, clazz, depth);
+		}
+		// Still haven't found it, try the declaring classes.
+		final Class<?> declaringClass = currentClazz.getDeclaringClass();
+		if (path.isEmpty() && !CheckUtil.isNull(declaringClass)) {
+			path = this.findTypePath(declaringClass, clazz, depth);
+		}
+		return path;
+	}
+
+	/**
+	 * Process the property.
+	 * 
+	 * @param clazz
+	 *            The type.
+	 * @param genericParameter
+	 *            The generic parameter number.
+	 * @param cursor
+	 *            The cursor over the property hierachy.
+	 * @param property
+	 *            The property.
+	 * @param depth
+	 *            The scan depth.
+	 * @return The property type.
+	 */
+	private Type processProperty(final Class<?> clazz, final int genericParameter, final MemberCursor cursor, final Member property,
+			final ScanDepth depth) {
+		Type result = null;
+		// Get the type path.
+		final Type genericType = property.getGenericType();
+		TypePath typePath = this.findTypePath(genericType, clazz, depth);
+		// This field is part of the path.
+		if (genericType instanceof ParameterizedType) {
+			typePath = typePath.prepend(genericType);
+		}
+		if (!typePath.isEmpty()) {
+			// Trace to root type.
+			result = GenericsResolver.traceType(property, typePath.descendingIterator(), genericParameter);
+			result = this.handleTypeVariable(cursor, property, result, depth);
+		}
+		return result;
+	}
+
+	/**
+	 * Trace the generic argument along the type path of an entity type.
+	 * 
+	 * @param typePath
+	 *            The type path.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 * @return The type of the generic parameter of the target.
+	 */
+	private static Type traceEntityType(final TypePath typePath, final int genericParameter) {
+		final Iterator<Type> iterator = typePath.descendingIterator();
+		final ParameterResult result = new ParameterResult();
+		result.setIndex(genericParameter);
+		Type typeResult = result.getResult();
+		while (iterator.hasNext() && !(typeResult instanceof Class)) {
+			final Type type = iterator.next();
+			if (CheckUtil.isNull(typeResult)) {
+				result.setResult(GenericsResolver.processNoResult(genericParameter, result.getIndex(), type));
+			} else {
+				GenericsResolver.processExistingResult(result, type);
+			}
+			typeResult = result.getResult();
+		}
+		typeResult = result.getResult();
+		return typeResult;
+	}
+
+	/**
+	 * A cursor over a member hierarchy that leaves the hierarchy untouched.
+	 * 
+	 * @author Pal Hargitai (pal@lunarray.org)
+	 * @author agent (agent@local)
+	 */
+	private static class MemberCursor {
+		/** The members. */
+		private final transient List<? extends Member> members;
+		/** The position. */
+		private transient int position;
+		/** The start position. */
+		private final transient int start;
+
+		/**
+		 * Constructs the cursor.
+		 * 
+		 * @param members
+		 *            The members.
+		 * @param start
+		 *            The start position.
+		 */
+		public MemberCursor(final List<? extends Member> members, final int start) {
+			this.members = members;
+			this.start = start;
+			this.position = start;
+		}
+
+		/**
+		 * Gets the amount of members moved past.
+		 * 
+		 * @return The amount of members moved past.
+		 */
+		public final int getPosition() {
+			return this.position - this.start;
+		}
+
+		/**
+		 * Gets the amount of remaining members.
+		 * 
+		 * @return The amount of remaining members.
+		 */
+		public final int getRemaining() {
+			return Math.max(this.members.size() - this.position, 0);
+		}
+
+		/**
+		 * Gets the remaining members.
+		 * 
+		 * @return A view of the remaining members.
+		 */
+		public final List<? extends Member> getRemainingMembers() {
+			return this.members.subList(Math.min(this.position, this.members.size()), this.members.size());
+		}
+
+		/**
+		 * Gets the declaring type of the next member.
+		 * 
+		 * @return The declaring type, or null.
+		 */
+		public final Class<?> getRootType() {
+			Class<?> result = null;
+			if (!this.isEmpty()) {
+				final Member member = this.members.get(this.position);
+				if (!CheckUtil.isNull(member)) {
+					result = member.getDeclaringType();
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Tests if there are no remaining members.
+		 * 
+		 * @return True if and only if no members remain.
+		 */
+		public final boolean isEmpty() {
+			return this.position >= this.members.size();
+		}
+
+		/**
+		 * Moves to the next member.
+		 * 
+		 * @return The member.
+		 */
+		public final Member next() {
+			if (this.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			final Member member = this.members.get(this.position);
+			this.position = this.position + 1;
+			return member;
+		}
+	}
+
+	/**
+	 * A parameter result.
+	 * 
+	 * @author Pal Hargitai (pal@lunarray.org)
+	 * @author agent (agent@local)
+	 */
+	private static class ParameterResult {
+		/** The index type. */
+		private transient int index;
+		/** The result type. */
+		private transient Type result;
+
+		/**
+		 * Default constructor.
+		 */
+		public ParameterResult() {
+			// Default constructor.
+		}
+
+		/**
+		 * Gets the value for the index field.
+		 * 
+		 * @return The value for the index field.
+		 */
+		public final int getIndex() {
+			return this.index;
+		}
+
+		/**
+		 * Gets the value for the result field.
+		 * 
+		 * @return The value for the result field.
+		 */
+		public final Type getResult() {
+			return this.result;
+		}
+
+		/**
+		 * Sets a new value for the index field.
+		 * 
+		 * @param index
+		 *            The new value for the index field.
+		 */
+		public final void setIndex(final int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Sets a new value for the result field.
+		 * 
+		 * @param result
+		 *            The new value for the result field.
+		 */
+		public final void setResult(final Type result) {
+			this.result = result;
+		}
+	}
+
+	/**
+	 * Tracks the recursion depth of a resolution, and optionally the classes
+	 * it visited.
+	 * 
+	 * @author Pal Hargitai (pal@lunarray.org)
+	 * @author agent (agent@local)
+	 */
+	private static class ScanDepth {
+		/** The current depth. */
+		private transient int current;
+		/** The cache generation the resolution started at. */
+		private final transient int generation;
+		/** The maximum depth. */
+		private transient int maximum;
+		/** The visited classes, null if not tracked. */
+		private final transient Set<Class<?>> visited;
+
+		/**
+		 * Constructs the tracker.
+		 * 
+		 * @param trackVisited
+		 *            Whether to track the visited classes.
+		 * @param generation
+		 *            The cache generation the resolution starts at.
+		 */
+		public ScanDepth(final boolean trackVisited, final int generation) {
+			this.generation = generation;
+			if (trackVisited) {
+				this.visited = new HashSet<Class<?>>();
+			} else {
+				this.visited = null;
+			}
+		}
+
+		/**
+		 * Enters a level.
+		 */
+		public final void enter() {
+			this.current = this.current + 1;
+			if (this.current > this.maximum) {
+				this.maximum = this.current;
+			}
+		}
+
+		/**
+		 * Exits a level.
+		 */
+		public final void exit() {
+			this.current = this.current - 1;
+		}
+
+		/**
+		 * Gets the value for the generation field.
+		 * 
+		 * @return The value for the generation field.
+		 */
+		public final int getGeneration() {
+			return this.generation;
+		}
+
+		/**
+		 * Gets the value for the maximum field.
+		 * 
+		 * @return The value for the maximum field.
+		 */
+		public final int getMaximum() {
+			return this.maximum;
+		}
+
+		/**
+		 * Gets the value for the visited field.
+		 * 
+		 * @return The value for the visited field, null if not tracked.
+		 */
+		public final Set<Class<?>> getVisited() {
+			return this.visited;
+		}
+
+		/**
+		 * Marks a class as visited, if tracked.
+		 * 
+		 * @param clazz
+		 *            The class.
+		 */
+		public final void visit(final Class<?> clazz) {
+			if (!CheckUtil.isNull(this.visited)) {
+				this.visited.add(clazz);
+			}
+		}
+	}
+}
@@ -17,18 +17,17 @@
  */
 package org.lunarray.common.generics;
 
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
-import java.lang.reflect.WildcardType;
 import java.util.Deque;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
 
 import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.cache.ResolutionCache;
+import org.lunarray.common.generics.cache.TypePath;
 
 /**
- * A utility for generics.
+ * A utility for generics. Delegates to a default {@link GenericsResolver}.
  * 
  * @author Pal Hargitai (pal@lunarray.org)
  */
@@ -37,8 +36,23 @@ public enum GenericsUtil {
 	/** Instance. */
 	INSTANCE;
 
-	/** The maximum scan depth. */
-	private static final int MAX_SCAN_DEPTH = 5;
+	/** The default resolver. */
+	private static volatile GenericsResolver resolver = new GenericsResolver();
+
+	/**
+	 * Creates a resolver for the generic argument of a target type, to be
+	 * reused from a single call site. It falls back to the default resolver at
+	 * the time of a miss.
+	 * 
+	 * @param targetClazz
+	 *            The target of which the generic parameter is to be resolved.
+	 * @param genericParameter
+	 *            The generic parameter to get.
+	 * @return The resolver.
+	 */
+	public static EntityTypeResolver createEntityTypeResolver(final Class<?> targetClazz, final int genericParameter) {
+		return new EntityTypeResolver(targetClazz, genericParameter);
+	}
 
 	/**
 	 * Find the type path leading from the current type to the desired type.
@@ -50,19 +64,7 @@ public enum GenericsUtil {
 	 * @return The list from current type to desired type.
 	 */
 	public static Deque<Type> findTypePath(final Type currentType, final Class<?> clazz) {
-		final Deque<Type> path = new LinkedList<Type>();
-		if (!clazz.equals(currentType)) {
-			path.add(currentType);
-			// If the clazz is a Class, look if we can find the clazz.
-			if (currentType instanceof Class) {
-				GenericsUtil.processPath((Class<?>) currentType, clazz, path);
-			} else if (currentType instanceof ParameterizedType) {
-				// Search the raw type.
-				final ParameterizedType parameterizedType = (ParameterizedType) currentType;
-				path.addAll(GenericsUtil.findTypePath(parameterizedType.getRawType(), clazz));
-			}
-		}
-		return path;
+		return GenericsUtil.resolver.findTypePath(currentType, clazz);
 	}
 
 	/**
@@ -75,20 +77,7 @@ public enum GenericsUtil {
 	 * @return The clazz or one of it's declaring classes.
 	 */
 	public static Class<?> getDeclaringClass(final Class<?> declaringClazz, final TypeVariable<?> target) {
-		Class<?> source = declaringClazz;
-		boolean equals = false;
-		// Test if we can find the declaring clazz.
-		for (final TypeVariable<?> typeVariable : declaringClazz.getTypeParameters()) {
-			if (typeVariable.equals(target)) {
-				equals = true;
-			}
-		}
-		// Search it's declaring clazz.
-		final Class<?> nextDeclaring = declaringClazz.getDeclaringClass();
-		if (!equals && !CheckUtil.isNull(nextDeclaring)) {
-			source = GenericsUtil.getDeclaringClass(nextDeclaring, target);
-		}
-		return source;
+		return GenericsUtil.resolver.getDeclaringClass(declaringClazz, target);
 	}
 
 	/**
@@ -103,23 +92,7 @@ public enum GenericsUtil {
 	 * @return The type of the generic parameter of the target.
 	 */
 	public static Type getEntityGenericType(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
-		// Get the type path.
-		final Deque<Type> typePath = GenericsUtil.findTypePath(clazz, targetClazz);
-		final Iterator<Type> iterator = typePath.descendingIterator();
-		final ParameterResult result = new ParameterResult();
-		result.setIndex(genericParameter);
-		Type typeResult = result.getResult();
-		while (iterator.hasNext() && !(typeResult instanceof Class)) {
-			final Type type = iterator.next();
-			if (CheckUtil.isNull(typeResult)) {
-				result.setResult(GenericsUtil.processNoResult(genericParameter, result.getIndex(), type));
-			} else {
-				GenericsUtil.processExistingResult(result, type);
-			}
-			typeResult = result.getResult();
-		}
-		typeResult = result.getResult();
-		return typeResult;
+		return GenericsUtil.resolver.getEntityGenericType(clazz, genericParameter, targetClazz);
 	}
 
 	/**
@@ -131,20 +104,32 @@ public enum GenericsUtil {
 	 * @param genericParameter
 	 *            The parameter number of the clazz we're looking for.
 	 * @param propertyHierarchy
-	 *            The filed hierarachy.
+	 *            The filed hierarachy. Resolved members are removed from it.
 	 * @return The most specific type we can assign to the given parameter.
 	 */
 	public static Type getPropertyGenericType(final Class<?> clazz, final int genericParameter,
 			final Deque<? extends Member> propertyHierarchy) {
-		Type result = null;
-		if (!propertyHierarchy.isEmpty()) {
-			// First field.
-			final Member property = propertyHierarchy.pop();
-			if (!CheckUtil.isNull(property)) {
-				result = GenericsUtil.processProperty(clazz, genericParameter, propertyHierarchy, property);
-			}
-		}
-		return result;
+		return GenericsUtil.resolver.getPropertyGenericType(clazz, genericParameter, propertyHierarchy);
+	}
+
+	/**
+	 * Gets the most specific type we can assign to the given genericParameter
+	 * to the clazz in the known fieldHierarchy. The hierarchy is not modified,
+	 * so it may be shared between threads.
+	 * 
+	 * @param clazz
+	 *            THe clazz we're looking for.
+	 * @param genericParameter
+	 *            The parameter number of the clazz we're looking for.
+	 * @param propertyHierarchy
+	 *            The filed hierarchy.
+	 * @param offset
+	 *            The index of the first member in the hierarchy.
+	 * @return The most specific type we can assign to the given parameter.
+	 */
+	public static Type getPropertyGenericType(final Class<?> clazz, final int genericParameter,
+			final List<? extends Member> propertyHierarchy, final int offset) {
+		return GenericsUtil.resolver.getPropertyGenericType(clazz, genericParameter, propertyHierarchy, offset);
 	}
 
 	/**
@@ -160,11 +145,7 @@ public enum GenericsUtil {
 	 * @return The most specific type we can assign to the given parameter.
 	 */
 	public static Type getPropertyGenericType(final Class<?> clazz, final int genericParameter, final Member... propertyHierarchy) {
-		final Deque<Member> properties = new LinkedList<Member>();
-		for (final Member property : propertyHierarchy) {
-			properties.add(property);
-		}
-		return GenericsUtil.getPropertyGenericType(clazz, genericParameter, properties);
+		return GenericsUtil.resolver.getPropertyGenericType(clazz, genericParameter, propertyHierarchy);
 	}
 
 	/**
@@ -175,452 +156,144 @@ public enum GenericsUtil {
 	 * @return The index of this type variables.
 	 */
 	public static int getRealParameter(final TypeVariable<?> realType) {
-		int realVariable = -1;
-		final Type type = (Type) realType.getGenericDeclaration();
-		if (type instanceof Class) {
-			final Class<?> clazz = (Class<?>) type;
-			final TypeVariable<?>[] tvs = clazz.getTypeParameters();
-			for (int i = 0; i < tvs.length; i = i + 1) {
-				if (realType.equals(tvs[i])) {
-					realVariable = i;
-				}
-			}
-		}
-		return realVariable;
+		return GenericsUtil.resolver.getRealParameter(realType);
 	}
 
 	/**
 	 * Finds originating type for this field.
 	 * 
 	 * @param properties
-	 *            The fields to look through.
+	 *            The fields to look through. Resolved fields are removed from
+	 *            it.
 	 * @return The true type.
 	 */
 	public static Type getRealType(final Deque<? extends Member> properties) {
-		final Member property = properties.pop();
-		final Type fieldType = property.getGenericType();
-		Type result = null;
-		if (fieldType instanceof TypeVariable) {
-			final TypeVariable<?> typeVariable = (TypeVariable<?>) fieldType;
-			final Class<?> declaringType = GenericsUtil.getDeclaringClass(property.getDeclaringType(), typeVariable);
-			final TypeVariable<?> superTypeVariable = GenericsUtil.getSuperDeclaration(property, typeVariable);
-			final int param = GenericsUtil.getRealParameter(superTypeVariable);
-			result = GenericsUtil.getPropertyGenericType(declaringType, param, properties);
-		} else if (fieldType instanceof Class) {
-			result = fieldType;
-		} else if (fieldType instanceof ParameterizedType) {
-			final ParameterizedType pType = (ParameterizedType) fieldType;
-			result = pType.getRawType();
-		}
-		return result;
+		return GenericsUtil.resolver.getRealType(properties);
 	}
 
 	/**
-	 * Finds originating type for this field.
+	 * Finds originating type for this field. The fields are not modified, so
+	 * they may be shared between threads.
 	 * 
-	 * @param propertyHierarchy
+	 * @param properties
 	 *            The fields to look through.
+	 * @param offset
+	 *            The index of the first field.
 	 * @return The true type.
 	 */
-	public static Type getRealType(final Member... propertyHierarchy) {
-		final Deque<Member> properties = new LinkedList<Member>();
-		for (final Member property : propertyHierarchy) {
-			properties.add(property);
-		}
-		return GenericsUtil.getRealType(properties);
+	public static Type getRealType(final List<? extends Member> properties, final int offset) {
+		return GenericsUtil.resolver.getRealType(properties, offset);
 	}
 
 	/**
-	 * Gets the variable of the class that represents the variable for the
-	 * field.
-	 * 
-	 * @param property
-	 *            The field to match the variable to.
-	 * @param typeVariable
-	 *            The variable to match.
-	 * @return The variable of the declaring class.
-	 */
-	public static TypeVariable<?> getSuperDeclaration(final Member property, final TypeVariable<?> typeVariable) {
-		TypeVariable<?> result = typeVariable;
-		Class<?> declaring = property.getDeclaringType();
-		while (!CheckUtil.isNull(declaring)) {
-			for (final TypeVariable<?> declaringTypeVariable : declaring.getTypeParameters()) {
-				if (result.equals(declaringTypeVariable)) {
-					result = declaringTypeVariable;
-				}
-			}
-			declaring = declaring.getDeclaringClass();
-		}
-		return result;
-	}
-
-	/**
-	 * Guesses the clazz of a type.
-	 * 
-	 * @param type
-	 *            The type.
-	 * @return The clazz.
-	 */
-	public static Class<?> guessClazz(final Type type) {
-		return GenericsUtil.guessClazz(type, 0);
-	}
-
-	/**
-	 * Trace to the most specific type of the field.
-	 * 
-	 * @param property
-	 *            The field to look for.
-	 * @param typePath
-	 *            The type path.
-	 * @param originatingIndex
-	 *            The originating index.
-	 * @return The most specific type.
-	 */
-	public static Type traceType(final Member property, final Deque<Type> typePath, final int originatingIndex) {
-		final Iterator<Type> iterator = typePath.descendingIterator();
-		final ParameterResult result = new ParameterResult();
-		result.setIndex(originatingIndex);
-		Type typeResult = result.getResult();
-		while (iterator.hasNext() && !(typeResult instanceof Class)) {
-			final Type type = iterator.next();
-			if (CheckUtil.isNull(typeResult)) {
-				result.setResult(GenericsUtil.processNoResult(originatingIndex, result.getIndex(), type));
-			} else {
-				GenericsUtil.processExistingResult(result, type);
-			}
-		}
-		typeResult = result.getResult();
-		if (typeResult instanceof TypeVariable<?>) {
-			final Type type = property.getGenericType();
-			if (type instanceof ParameterizedType) {
-				final ParameterizedType parameterizedType = (ParameterizedType) type;
-				result.setResult(parameterizedType.getActualTypeArguments()[result.getIndex()]);
-			}
-		}
-		return result.getResult();
-	}
-
-	/**
-	 * Decide if we continue on guessing the class or we stick to Object.
+	 * Finds originating type for this field.
 	 * 
-	 * @param looped
-	 *            The amount of times we looped.
-	 * @param type
-	 *            The guessed type.
-	 * @return The guessed type.
+	 * @param propertyHierarchy
+	 *            The fields to look through.
+	 * @return The true type.
 	 */
-	private static Class<?> decideGuessClazz(final int looped, final Type type) {
-		Class<?> result;
-		if (looped > GenericsUtil.MAX_SCAN_DEPTH) {
-			result = Object.class;
-		} else {
-			result = GenericsUtil.guessClazz(type, looped);
-		}
-		return result;
+	public static Type getRealType(final Member... propertyHierarchy) {
+		return GenericsUtil.resolver.getRealType(propertyHierarchy);
 	}
 
 	/**
-	 * Gets the type variable match.
+	 * Gets the entity type cache of the default resolver.
 	 * 
-	 * @param clazz
-	 *            The type.
-	 * @param types
-	 *            The super variables.
-	 * @param result
-	 *            The result.
+	 * @return The cache, or null if entity types are not cached.
 	 */
-	private static void getClassMatch(final Class<?> clazz, final Type[] types, final ParameterResult result) {
-		for (int i = 0; i < types.length; i = i + 1) {
-			if (types[i].equals(result.getResult())) {
-				result.setIndex(i);
-				result.setResult(types[i]);
-			}
-		}
+	public static ResolutionCache getResolutionCache() {
+		return GenericsUtil.resolver.getResolutionCache();
 	}
 
 	/**
-	 * Gets the type variable match.
+	 * Gets the default resolver.
 	 * 
-	 * @param clazz
-	 *            The type.
-	 * @param typeVariableSuper
-	 *            The super variables.
-	 * @param result
-	 *            The result.
+	 * @return The default resolver.
 	 */
-	private static void getClassMatch(final Class<?> clazz, final TypeVariable<?>[] typeVariableSuper, final ParameterResult result) {
-		for (int i = 0; i < typeVariableSuper.length; i = i + 1) {
-			if (typeVariableSuper[i].equals(result.getResult())) {
-				result.setIndex(i);
-				result.setResult(typeVariableSuper[i]);
-			}
-		}
+	public static GenericsResolver getResolver() {
+		return GenericsUtil.resolver;
 	}
 
 	/**
-	 * Guesses the clazz of a type.
+	 * Gets the variable of the class that represents the variable for the
+	 * field.
 	 * 
-	 * @param type
-	 *            The type.
-	 * @param loops
-	 *            Amount of loops.
-	 * @return The clazz.
+	 * @param property
+	 *            The field to match the variable to.
+	 * @param typeVariable
+	 *            The variable to match.
+	 * @return The variable of the declaring class.
 	 */
-	private static Class<?> guessClazz(final Type type, final int loops) {
-		final int looped = loops + 1;
-		Class<?> result;
-		if (type instanceof Class) {
-			result = (Class<?>) type;
-		} else if (type instanceof ParameterizedType) {
-			final ParameterizedType paramType = (ParameterizedType) type;
-			result = GenericsUtil.decideGuessClazz(looped, paramType.getRawType());
-		} else if (type instanceof TypeVariable<?>) {
-			final TypeVariable<?> typeVar = (TypeVariable<?>) type;
-			final Type[] bounds = typeVar.getBounds();
-			result = GenericsUtil.decideGuessClazz(looped, bounds[0]);
-		} else if (type instanceof WildcardType) {
-			final WildcardType wildType = (WildcardType) type;
-			final Type[] bounds = wildType.getUpperBounds();
-			result = GenericsUtil.decideGuessClazz(looped, bounds[0]);
-		} else {
-			result = Object.class;
-		}
-		return result;
+	public static TypeVariable<?> getSuperDeclaration(final Member property, final TypeVariable<?> typeVariable) {
+		return GenericsUtil.resolver.getSuperDeclaration(property, typeVariable);
 	}
 
 	/**
-	 * Handle type variable.
+	 * Find the type path leading from the current type to the desired type.
 	 * 
-	 * @param propertyHierarchy
-	 *            The hierarchy.
-	 * @param property
-	 *            The handle property.
 	 * @param currentType
 	 *            The current type.
-	 * @return The property type.
-	 */
-	private static Type handleTypeVariable(final Deque<? extends Member> propertyHierarchy, final Member property, final Type currentType) {
-		Type result = currentType;
-		// If it's a variable.
-		if ((result instanceof TypeVariable) && !propertyHierarchy.isEmpty()) {
-			// Match to parent variable
-			final TypeVariable<?> typeVariable = (TypeVariable<?>) result;
-			final Class<?> declaringClass = GenericsUtil.getDeclaringClass(property.getDeclaringType(), typeVariable);
-			int index = -1;
-			final TypeVariable<?>[] typeVariables = declaringClass.getTypeParameters();
-			for (int iterator = 0; iterator < typeVariables.length; iterator = iterator + 1) {
-				if (typeVariables[iterator].equals(typeVariable)) {
-					index = iterator;
-				}
-			}
-			if (GenericsUtil.isPositive(index)) {
-				// If resolvable, resolve.
-				result = GenericsUtil.getPropertyGenericType(declaringClass, index, propertyHierarchy);
-			}
-		}
-		return result;
-	}
-
-	/**
-	 * Make sure the number is positive.
-	 * 
-	 * @param number
-	 *            The number.
-	 * @return True if the number is positive.
-	 */
-	private static boolean isPositive(final int number) {
-		return number >= 0;
-	}
-
-	/**
-	 * Process an existing result.
-	 * 
-	 * @param result
-	 *            The result.
-	 * @param type
-	 *            The result type.
-	 */
-	private static void processExistingResult(final ParameterResult result, final Type type) {
-		if (type instanceof Class) {
-			final Class<?> clazz = (Class<?>) type;
-			final TypeVariable<?>[] typeVariableSuper = clazz.getTypeParameters();
-			GenericsUtil.getClassMatch(clazz, typeVariableSuper, result);
-		} else if (type instanceof ParameterizedType) {
-			final ParameterizedType parameterizedType = (ParameterizedType) type;
-			final Class<?> clazz = (Class<?>) parameterizedType.getRawType();
-			Type[] types = clazz.getTypeParameters();
-			GenericsUtil.getClassMatch(clazz, types, result);
-			types = parameterizedType.getActualTypeArguments();
-			GenericsUtil.getClassMatch(clazz, types, result);
-			final Type actualType = parameterizedType.getActualTypeArguments()[result.getIndex()];
-			if (actualType instanceof Class) {
-				result.setResult(actualType);
-			} else if (actualType instanceof ParameterizedType) {
-				final ParameterizedType actualParameterizedType = (ParameterizedType) actualType;
-				result.setResult(actualParameterizedType.getRawType());
-			}
-		}
-	}
-
-	/**
-	 * Processes the interfaces.
-	 * 
 	 * @param clazz
-	 *            The super clazz.
-	 * @param path
-	 *            The declaration path.
-	 * @param currentClazz
-	 *            The current clazz.
+	 *            The desired type.
+	 * @return The path from current type to desired type.
 	 */
-	private static void processInterfaces(final Class<?> clazz, final Deque<Type> path, final Class<?> currentClazz) {
-		for (final Type type : currentClazz.getGenericInterfaces()) {
-			if (type instanceof ParameterizedType) {
-				final ParameterizedType parameterizedType = (ParameterizedType) type;
-				if (clazz.equals(parameterizedType.getRawType())) {
-					path.add(parameterizedType);
-				}
-			}
-		}
+	public static TypePath getTypePath(final Type currentType, final Class<?> clazz) {
+		return GenericsUtil.resolver.getTypePath(currentType, clazz);
 	}
 
 	/**
-	 * Processing step with no results.
+	 * Guesses the clazz of a type. This is the erasure of the type, type
+	 * variables declared by a class are only resolved once.
 	 * 
-	 * @param originatingIndex
-	 *            The first index.
-	 * @param currentIndex
-	 *            The current index.
 	 * @param type
 	 *            The type.
-	 * @return The new type.
+	 * @return The clazz.
 	 */
-	private static Type processNoResult(final int originatingIndex, final int currentIndex, final Type type) {
-		Type result = null;
-		if (type instanceof Class) {
-			final Class<?> clazz = (Class<?>) type;
-			if (clazz.getTypeParameters().length > originatingIndex) {
-				result = clazz.getTypeParameters()[currentIndex];
-			}
-		} else if (type instanceof ParameterizedType) {
-			final ParameterizedType parameterizedType = (ParameterizedType) type;
-			final Type[] types = parameterizedType.getActualTypeArguments();
-			if (types.length > originatingIndex) {
-				result = types[currentIndex];
-			}
-		}
-		return result;
+	public static Class<?> guessClazz(final Type type) {
+		return GenericsUtil.resolver.guessClazz(type);
 	}
 
 	/**
-	 * Process the path.
+	 * Sets the entity type cache, replacing the default resolver. The recorder
+	 * of the default resolver is kept, and the replaced resolver is closed
+	 * unless it used the same cache.
 	 * 
-	 * @param currentType
-	 *            The current type.
-	 * @param clazz
-	 *            The type
-	 * @param path
-	 *            The path.
+	 * @param resolutionCache
+	 *            The cache, or null to stop caching entity types.
 	 */
-	private static void processPath(final Class<?> currentType, final Class<?> clazz, final Deque<Type> path) {
-		final Class<?> currentClazz = currentType;
-		GenericsUtil.processInterfaces(clazz, path, currentClazz);
-		// We haven't found it yet, try the superclasses.
-		final Type superClass = currentClazz.getGenericSuperclass();
-		if ((path.size() < 2) && !CheckUtil.isNull(superClass)) {
-			path.addAll(GenericsUtil.findTypePath(superClass, clazz));
-		}
-		// Still haven't found it, try the declaring classes.
-		final Class<?> declaringClass = currentClazz.getDeclaringClass();
-		if ((path.size() < 2) && !CheckUtil.isNull(declaringClass)) {
-			path.addAll(GenericsUtil.findTypePath(declaringClass, clazz));
+	public static synchronized void setResolutionCache(final ResolutionCache resolutionCache) {
+		final GenericsResolver previous = GenericsUtil.resolver;
+		GenericsUtil.resolver = new GenericsResolver(resolutionCache, previous.getResolutionRecorder());
+		if (previous.getResolutionCache() != resolutionCache) {
+			previous.close();
 		}
 	}
 
 	/**
-	 * Process the property.
+	 * Sets the default resolver.
 	 * 
-	 * @param clazz
-	 *            The type.
-	 * @param genericParameter
-	 *            The generic parameter number.
-	 * @param propertyHierarchy
-	 *            The property hierachy.
-	 * @param property
-	 *            The property.
-	 * @return The property type.
+	 * @param resolver
+	 *            The new default resolver, may not be null.
 	 */
-	private static Type processProperty(final Class<?> clazz, final int genericParameter, final Deque<? extends Member> propertyHierarchy,
-			final Member property) {
-		Type result = null;
-		// Get the type path.
-		final Type genericType = property.getGenericType();
-		final Deque<Type> typePath = GenericsUtil.findTypePath(genericType, clazz);
-		// This field is part of the path.
-		if (genericType instanceof ParameterizedType) {
-			typePath.push(genericType);
-		}
-		if (!typePath.isEmpty()) {
-			// Trace to root type.
-			result = GenericsUtil.traceType(property, typePath, genericParameter);
-			result = GenericsUtil.handleTypeVariable(propertyHierarchy, property, result);
+	public static synchronized void setResolver(final GenericsResolver resolver) {
+		if (CheckUtil.isNull(resolver)) {
+			throw new IllegalArgumentException("Resolver may not be null.");
 		}
-		return result;
+		GenericsUtil.resolver = resolver;
 	}
 
 	/**
-	 * A parameter result.
+	 * Trace to the most specific type of the field.
 	 * 
-	 * @author Pal Hargitai (pal@lunarray.org)
+	 * @param property
+	 *            The field to look for.
+	 * @param typePath
+	 *            The type path.
+	 * @param originatingIndex
+	 *            The originating index.
+	 * @return The most specific type.
 	 */
-	private static class ParameterResult {
-		/** The index type. */
-		private transient int index;
-		/** The result type. */
-		private transient Type result;
-
-		/**
-		 * Default constructor.
-		 */
-		public ParameterResult() {
-			// Default constructor.
-		}
-
-		/**
-		 * Gets the value for the index field.
-		 * 
-		 * @return The value for the index field.
-		 */
-		public final int getIndex() {
-			return this.index;
-		}
-
-		/**
-		 * Gets the value for the result field.
-		 * 
-		 * @return The value for the result field.
-		 */
-		public final Type getResult() {
-			return this.result;
-		}
-
-		/**
-		 * Sets a new value for the index field.
-		 * 
-		 * @param index
-		 *            The new value for the index field.
-		 */
-		public final void setIndex(final int index) {
-			this.index = index;
-		}
-
-		/**
-		 * Sets a new value for the result field.
-		 * 
-		 * @param result
-		 *            The new value for the result field.
-		 */
-		public final void setResult(final Type result) {
-			this.result = result;
-		}
+	public static Type traceType(final Member property, final Deque<Type> typePath, final int originatingIndex) {
+		return GenericsUtil.resolver.traceType(property, typePath, originatingIndex);
 	}
 }
@@ -0,0 +1,313 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.impl.MemberField;
+import org.lunarray.common.generics.impl.MemberMethod;
+
+/**
+ * Scans the members of a class hierarchy once and caches the result per
+ * class. The declaration, the fields and the methods of a class are scanned
+ * separately and only when first asked for, so resolving type parameters
+ * never loads the types of members. The caches are held by the scanned classes
+ * themselves. A class from a parent loader, such as {@link Object}, therefore
+ * keeps its scan, and with it the loader of this library, alive for as long as
+ * that class lives (JDK-8136353), so redeploying this library in a child loader
+ * leaks the previous loader once such classes have been scanned.
+ * 
+ * @author agent (agent@local)
+ */
+public enum MemberScanner {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** The scanned declarations. */
+	private static final ClassValue<ScannedDeclaration> DECLARATIONS = new ClassValue<ScannedDeclaration>() {
+		/** {@inheritDoc} */
+		@Override
+		protected ScannedDeclaration computeValue(final Class<?> type) {
+			return new ScannedDeclaration(type.getGenericInterfaces(), type.getTypeParameters());
+		}
+	};
+	/** The scanned fields. */
+	private static final ClassValue<List<MemberField>> FIELDS = new ClassValue<List<MemberField>>() {
+		/** {@inheritDoc} */
+		@Override
+		protected List<MemberField> computeValue(final Class<?> type) {
+			return MemberScanner.scanFields(type);
+		}
+	};
+	/** The scanned methods. */
+	private static final ClassValue<ScannedMethods> METHODS = new ClassValue<ScannedMethods>() {
+		/** {@inheritDoc} */
+		@Override
+		protected ScannedMethods computeValue(final Class<?> type) {
+			return MemberScanner.scanMethods(type);
+		}
+	};
+	/** The return type marker. */
+	private static final int RETURN_TYPE = -1;
+
+	/**
+	 * Gets the fields declared by the class and its superclasses.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The fields, most specific class first.
+	 */
+	public static List<MemberField> getFields(final Class<?> clazz) {
+		return MemberScanner.FIELDS.get(clazz);
+	}
+
+	/**
+	 * Gets the generic interfaces directly implemented by the class.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The generic interfaces.
+	 */
+	public static List<Type> getGenericInterfaces(final Class<?> clazz) {
+		return MemberScanner.DECLARATIONS.get(clazz).getGenericInterfaceList();
+	}
+
+	/**
+	 * Gets a member for every parameter of every method declared by the class
+	 * and its superclasses.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The method parameters, most specific class first.
+	 */
+	public static List<MemberMethod> getMethodParameters(final Class<?> clazz) {
+		return MemberScanner.METHODS.get(clazz).getParameterList();
+	}
+
+	/**
+	 * Gets a member for the return type of every method declared by the class
+	 * and its superclasses.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The methods, most specific class first.
+	 */
+	public static List<MemberMethod> getMethods(final Class<?> clazz) {
+		return MemberScanner.METHODS.get(clazz).getMethodList();
+	}
+
+	/**
+	 * Gets the type parameters of the class.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The type parameters.
+	 */
+	public static List<TypeVariable<?>> getTypeParameters(final Class<?> clazz) {
+		return MemberScanner.DECLARATIONS.get(clazz).getTypeParameterList();
+	}
+
+	/**
+	 * Gets the shared generic interfaces array. Must not be modified.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The generic interfaces.
+	 */
+	static Type[] genericInterfaces(final Class<?> clazz) {
+		return MemberScanner.DECLARATIONS.get(clazz).getGenericInterfaces();
+	}
+
+	/**
+	 * Gets the shared type parameters array. Must not be modified.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The type parameters.
+	 */
+	static TypeVariable<?>[] typeParameters(final Class<?> clazz) {
+		return MemberScanner.DECLARATIONS.get(clazz).getTypeParameters();
+	}
+
+	/**
+	 * Scans the fields of a class, reusing the scan of its superclass.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The fields.
+	 */
+	private static List<MemberField> scanFields(final Class<?> clazz) {
+		final List<MemberField> fields = new ArrayList<MemberField>();
+		for (final Field field : clazz.getDeclaredFields()) {
+			fields.add(new MemberField(field));
+		}
+		// Superclass members are shared with the superclass scan.
+		final Class<?> superClazz = clazz.getSuperclass();
+		if (!CheckUtil.isNull(superClazz)) {
+			fields.addAll(MemberScanner.FIELDS.get(superClazz));
+		}
+		return Collections.unmodifiableList(Arrays.asList(fields.toArray(new MemberField[fields.size()])));
+	}
+
+	/**
+	 * Scans the methods of a class, reusing the scan of its superclass.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The scanned methods.
+	 */
+	private static ScannedMethods scanMethods(final Class<?> clazz) {
+		final List<MemberMethod> methods = new ArrayList<MemberMethod>();
+		final List<MemberMethod> parameters = new ArrayList<MemberMethod>();
+		for (final Method method : clazz.getDeclaredMethods()) {
+			methods.add(new MemberMethod(method, MemberScanner.RETURN_TYPE));
+			final int parameterCount = method.getParameterTypes().length;
+			for (int i = 0; i < parameterCount; i = i + 1) {
+				parameters.add(new MemberMethod(method, i));
+			}
+		}
+		// Superclass members are shared with the superclass scan.
+		final Class<?> superClazz = clazz.getSuperclass();
+		if (!CheckUtil.isNull(superClazz)) {
+			final ScannedMethods superScanned = MemberScanner.METHODS.get(superClazz);
+			methods.addAll(superScanned.getMethodList());
+			parameters.addAll(superScanned.getParameterList());
+		}
+		return new ScannedMethods(methods.toArray(new MemberMethod[methods.size()]), parameters.toArray(new MemberMethod[parameters
+				.size()]));
+	}
+
+	/**
+	 * The scanned declaration of a single class.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class ScannedDeclaration {
+		/** The generic interface list. */
+		private final transient List<Type> genericInterfaceList;
+		/** The generic interfaces. */
+		private final transient Type[] genericInterfaces;
+		/** The type parameter list. */
+		private final transient List<TypeVariable<?>> typeParameterList;
+		/** The type parameters. */
+		private final transient TypeVariable<?>[] typeParameters;
+
+		/**
+		 * Constructs the scan result.
+		 * 
+		 * @param genericInterfaces
+		 *            The generic interfaces.
+		 * @param typeParameters
+		 *            The type parameters.
+		 */
+		public ScannedDeclaration(final Type[] genericInterfaces, final TypeVariable<?>[] typeParameters) {
+			this.genericInterfaces = genericInterfaces;
+			this.genericInterfaceList = Collections.unmodifiableList(Arrays.asList(genericInterfaces));
+			this.typeParameters = typeParameters;
+			this.typeParameterList = Collections.unmodifiableList(Arrays.<TypeVariable<?>> asList(typeParameters));
+		}
+
+		/**
+		 * Gets the value for the generic interface list field.
+		 * 
+		 * @return The value for the generic interface list field.
+		 */
+		public List<Type> getGenericInterfaceList() {
+			return this.genericInterfaceList;
+		}
+
+		/**
+		 * Gets the value for the generic interfaces field.
+		 * 
+		 * @return The value for the generic interfaces field.
+		 */
+		public Type[] getGenericInterfaces() {
+			return this.genericInterfaces;
+		}
+
+		/**
+		 * Gets the value for the type parameter list field.
+		 * 
+		 * @return The value for the type parameter list field.
+		 */
+		public List<TypeVariable<?>> getTypeParameterList() {
+			return this.typeParameterList;
+		}
+
+		/**
+		 * Gets the value for the type parameters field.
+		 * 
+		 * @return The value for the type parameters field.
+		 */
+		public TypeVariable<?>[] getTypeParameters() {
+			return this.typeParameters;
+		}
+	}
+
+	/**
+	 * The scanned methods of a class hierarchy.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class ScannedMethods {
+		/** The method list. */
+		private final transient List<MemberMethod> methodList;
+		/** The parameter list. */
+		private final transient List<MemberMethod> parameterList;
+
+		/**
+		 * Constructs the scan result.
+		 * 
+		 * @param methods
+		 *            The methods.
+		 * @param parameters
+		 *            The method parameters.
+		 */
+		public ScannedMethods(final MemberMethod[] methods, final MemberMethod[] parameters) {
+			this.methodList = Collections.unmodifiableList(Arrays.asList(methods));
+			this.parameterList = Collections.unmodifiableList(Arrays.asList(parameters));
+		}
+
+		/**
+		 * Gets the value for the method list field.
+		 * 
+		 * @return The value for the method list field.
+		 */
+		public List<MemberMethod> getMethodList() {
+			return this.methodList;
+		}
+
+		/**
+		 * Gets the value for the parameter list field.
+		 * 
+		 * @return The value for the parameter list field.
+		 */
+		public List<MemberMethod> getParameterList() {
+			return this.parameterList;
+		}
+	}
+}
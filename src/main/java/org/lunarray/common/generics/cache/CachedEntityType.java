@@ -0,0 +1,146 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+import java.lang.reflect.Type;
+
+/**
+ * A cached generic argument of an entity type.
+ * 
+ * @author agent (agent@local)
+ */
+public final class CachedEntityType {
+
+	/** The entity type. */
+	private final transient Class<?> clazz;
+	/** The classes the resolution depends on. */
+	private final transient Class<?>[] dependencies;
+	/** The generic parameter. */
+	private final transient int genericParameter;
+	/** Whether the entry was hit since the last eviction sweep. */
+	private transient volatile boolean referenced;
+	/** The target type. */
+	private final transient Class<?> targetClazz;
+	/** The resolved type. */
+	private final transient Type type;
+
+	/**
+	 * Constructs the cached type.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @param type
+	 *            The resolved type, may be null.
+	 * @param dependencies
+	 *            The classes the resolution depends on.
+	 */
+	public CachedEntityType(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz, final Type type,
+			final Class<?>[] dependencies) {
+		this.clazz = clazz;
+		this.dependencies = dependencies;
+		this.genericParameter = genericParameter;
+		this.targetClazz = targetClazz;
+		this.type = type;
+	}
+
+	/**
+	 * Clears the referenced mark.
+	 * 
+	 * @return True if and only if the entry was referenced.
+	 */
+	boolean clearReferenced() {
+		final boolean result = this.referenced;
+		if (result) {
+			this.referenced = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the value for the clazz field.
+	 * 
+	 * @return The value for the clazz field.
+	 */
+	public Class<?> getClazz() {
+		return this.clazz;
+	}
+
+	/**
+	 * Gets the value for the dependencies field. Must not be modified.
+	 * 
+	 * @return The value for the dependencies field.
+	 */
+	Class<?>[] getDependencies() {
+		return this.dependencies;
+	}
+
+	/**
+	 * Gets the value for the generic parameter field.
+	 * 
+	 * @return The value for the generic parameter field.
+	 */
+	public int getGenericParameter() {
+		return this.genericParameter;
+	}
+
+	/**
+	 * Gets the value for the target clazz field.
+	 * 
+	 * @return The value for the target clazz field.
+	 */
+	public Class<?> getTargetClazz() {
+		return this.targetClazz;
+	}
+
+	/**
+	 * Gets the value for the type field.
+	 * 
+	 * @return The value for the type field, may be null.
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * Marks the entry as referenced.
+	 */
+	void markReferenced() {
+		if (!this.referenced) {
+			this.referenced = true;
+		}
+	}
+
+	/**
+	 * Tests if this is the result for the given resolution.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @return True if and only if this is the result for the resolution.
+	 */
+	public boolean matches(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		return (this.clazz == clazz) && (this.genericParameter == genericParameter) && (this.targetClazz == targetClazz);
+	}
+}
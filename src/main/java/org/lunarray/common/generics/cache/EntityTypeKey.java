@@ -0,0 +1,120 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+/**
+ * The key of an entity type resolution.
+ * 
+ * @author agent (agent@local)
+ */
+public final class EntityTypeKey {
+
+	/** Hash prime. */
+	private static final int PRIME = 31;
+
+	/** The entity type. */
+	private final transient Class<?> clazz;
+	/** The generic parameter. */
+	private final transient int genericParameter;
+	/** The hash code. */
+	private final transient int hash;
+	/** The target type. */
+	private final transient Class<?> targetClazz;
+
+	/**
+	 * Constructs the key.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 */
+	public EntityTypeKey(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		this.clazz = clazz;
+		this.genericParameter = genericParameter;
+		this.targetClazz = targetClazz;
+		this.hash = EntityTypeKey.hash(clazz, genericParameter, targetClazz);
+	}
+
+	/**
+	 * Computes the hash of a resolution.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @return The hash.
+	 */
+	public static int hash(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		int result = System.identityHashCode(clazz);
+		result = (EntityTypeKey.PRIME * result) + genericParameter;
+		result = (EntityTypeKey.PRIME * result) + System.identityHashCode(targetClazz);
+		return result;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(final Object obj) {
+		boolean result = false;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof EntityTypeKey) {
+			final EntityTypeKey other = (EntityTypeKey) obj;
+			result = (this.clazz == other.clazz) && (this.genericParameter == other.genericParameter)
+					&& (this.targetClazz == other.targetClazz);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the value for the clazz field.
+	 * 
+	 * @return The value for the clazz field.
+	 */
+	public Class<?> getClazz() {
+		return this.clazz;
+	}
+
+	/**
+	 * Gets the value for the generic parameter field.
+	 * 
+	 * @return The value for the generic parameter field.
+	 */
+	public int getGenericParameter() {
+		return this.genericParameter;
+	}
+
+	/**
+	 * Gets the value for the target clazz field.
+	 * 
+	 * @return The value for the target clazz field.
+	 */
+	public Class<?> getTargetClazz() {
+		return this.targetClazz;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+}
@@ -0,0 +1,1040 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * A two tier cache of entity type resolutions. Every platform thread has a
+ * small direct mapped first tier in front of a shared, bounded second tier.
+ * When the second tier exceeds its capacity, a sweep evicts a batch of entries
+ * that were not hit since the previous sweep, giving hit entries a second
+ * chance.
+ * Virtual threads skip the first tier, so they do not each hold a table.
+ * First tier hits and misses are counted per thread and summed when read, so
+ * the statistics are approximate while threads are resolving.
+ * Every shared entry is registered with the classes its resolution depends
+ * on, so invalidating a class or class loader only evicts the affected
+ * entries. A resolution takes the {@link #getGeneration() generation} before
+ * it starts and passes it when storing, so a resolution that raced an
+ * invalidation is not kept.
+ * Type paths are cached alongside, sharing the paths of their supertypes.
+ * The local tables of platform threads outlive a discarded cache until their
+ * threads expunge them, so a cache that is discarded, for instance with the
+ * class loader of a tenant, should be closed to release the cached classes.
+ * 
+ * @author agent (agent@local)
+ */
+public final class ResolutionCache {
+
+	/** The default local size. */
+	public static final int DEFAULT_LOCAL_SIZE = 64;
+	/** The default shared capacity. */
+	public static final int DEFAULT_SHARED_CAPACITY = 4096;
+	/** The part of the capacity freed beyond the excess per sweep, as a shift. */
+	private static final int EVICTION_SHIFT = 4;
+	/** The virtual thread test, null if there are no virtual threads. */
+	private static final MethodHandle IS_VIRTUAL = ResolutionCache.findIsVirtual();
+
+	/** The entries depending on a class. */
+	private final transient ConcurrentMap<Class<?>, Set<Object>> dependents;
+	/** The amount of entries evicted per sweep beyond the excess. */
+	private final transient int evictionBatch;
+	/** The evictions. */
+	private final transient LongAdder evictions = new LongAdder();
+	/** The generation, bumped around every invalidation. */
+	private final transient AtomicInteger generation = new AtomicInteger();
+	/** The local mask. */
+	private final transient int localMask;
+	/** The local tables. */
+	private final transient ThreadLocal<LocalTable> localTables;
+	/** The local tables of all threads, held weakly. */
+	private final transient Set<LocalTableReference> localTableSet;
+	/** The type paths. */
+	private final transient ConcurrentMap<PathKey, TypePath> paths;
+	/** The local hits of collected tables. */
+	private final transient LongAdder retiredHits = new LongAdder();
+	/** The local misses of collected tables. */
+	private final transient LongAdder retiredMisses = new LongAdder();
+	/** The collected local tables. */
+	private final transient ReferenceQueue<LocalTable> retiredTables = new ReferenceQueue<LocalTable>();
+	/** The shared entries. */
+	private final transient ConcurrentMap<EntityTypeKey, CachedEntityType> shared;
+	/** The shared capacity. */
+	private final transient int sharedCapacity;
+	/** The shared hits. */
+	private final transient LongAdder sharedHits = new LongAdder();
+	/** The shared misses. */
+	private final transient LongAdder sharedMisses = new LongAdder();
+	/** Held while sweeping. */
+	private final transient AtomicBoolean sweeping = new AtomicBoolean();
+
+	/**
+	 * Constructs a cache with the default sizes.
+	 */
+	public ResolutionCache() {
+		this(ResolutionCache.DEFAULT_LOCAL_SIZE, ResolutionCache.DEFAULT_SHARED_CAPACITY);
+	}
+
+	/**
+	 * Constructs the cache.
+	 * 
+	 * @param localSize
+	 *            The entries per thread, rounded up to a power of two. Zero
+	 *            disables the first tier.
+	 * @param sharedCapacity
+	 *            The maximum amount of shared entries, and of type paths.
+	 */
+	public ResolutionCache(final int localSize, final int sharedCapacity) {
+		if (!CheckUtil.checkPositive(localSize) || !CheckUtil.checkPositive(sharedCapacity)) {
+			throw new IllegalArgumentException("Cache sizes may not be negative.");
+		}
+		this.sharedCapacity = sharedCapacity;
+		this.evictionBatch = sharedCapacity >> ResolutionCache.EVICTION_SHIFT;
+		this.shared = new ConcurrentHashMap<EntityTypeKey, CachedEntityType>();
+		this.paths = new ConcurrentHashMap<PathKey, TypePath>();
+		this.dependents = new ConcurrentHashMap<Class<?>, Set<Object>>();
+		if (localSize == 0) {
+			this.localMask = -1;
+			this.localTables = null;
+			this.localTableSet = null;
+		} else {
+			final int tableSize = Integer.highestOneBit(localSize - 1) << 1;
+			this.localMask = Math.max(tableSize, 1) - 1;
+			this.localTables = new ThreadLocal<LocalTable>() {
+				/** {@inheritDoc} */
+				@Override
+				protected LocalTable initialValue() {
+					ResolutionCache.this.expungeTables();
+					final LocalTable table = new LocalTable(ResolutionCache.this.localMask + 1);
+					ResolutionCache.this.localTableSet.add(new LocalTableReference(table, ResolutionCache.this.retiredTables));
+					return table;
+				}
+			};
+			this.localTableSet = ConcurrentHashMap.newKeySet();
+		}
+	}
+
+	/**
+	 * Drops all entries. Local tables are dropped lazily.
+	 */
+	public void clear() {
+		// Bump before removal, so resolutions racing the clear are not stored,
+		// and after, so a table validated in between is dropped again.
+		this.generation.incrementAndGet();
+		this.shared.clear();
+		this.paths.clear();
+		this.dependents.clear();
+		this.generation.incrementAndGet();
+	}
+
+	/**
+	 * Drops all entries, including those in the local tables of all threads,
+	 * and the local table of the calling thread. The emptied local tables of
+	 * other threads are released when their threads expunge them. The cache
+	 * remains usable.
+	 */
+	public void close() {
+		this.clear();
+		if (!CheckUtil.isNull(this.localTables)) {
+			for (final LocalTableReference reference : this.localTableSet) {
+				final LocalTable table = reference.get();
+				if (!CheckUtil.isNull(table)) {
+					table.clear();
+				}
+			}
+			this.localTables.remove();
+		}
+	}
+
+	/**
+	 * Evicts all entries depending on classes of the class loader.
+	 * 
+	 * @param loader
+	 *            The class loader.
+	 * @return The amount of evicted shared entries.
+	 */
+	public int evict(final ClassLoader loader) {
+		int evicted = 0;
+		for (final Class<?> dependency : this.dependents.keySet()) {
+			if (dependency.getClassLoader() == loader) {
+				evicted = evicted + this.invalidate(dependency);
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Gets the amount of entries and paths evicted for capacity.
+	 * 
+	 * @return The amount of evictions.
+	 */
+	public long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Gets the generation. It changes on every invalidation, so a resolution
+	 * should take it before it starts and pass it when storing.
+	 * 
+	 * @return The generation.
+	 */
+	public int getGeneration() {
+		return this.generation.get();
+	}
+
+	/**
+	 * Gets the value for the local hits field.
+	 * 
+	 * @return The value for the local hits field.
+	 */
+	public long getLocalHits() {
+		this.expungeTables();
+		long hits = this.retiredHits.sum();
+		if (!CheckUtil.isNull(this.localTableSet)) {
+			for (final LocalTableReference reference : this.localTableSet) {
+				hits = hits + reference.getCounts().getHits();
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Gets the value for the local misses field.
+	 * 
+	 * @return The value for the local misses field.
+	 */
+	public long getLocalMisses() {
+		this.expungeTables();
+		long misses = this.retiredMisses.sum();
+		if (!CheckUtil.isNull(this.localTableSet)) {
+			for (final LocalTableReference reference : this.localTableSet) {
+				misses = misses + reference.getCounts().getMisses();
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * Gets the amount of cached type paths.
+	 * 
+	 * @return The amount of cached type paths.
+	 */
+	public int getPathSize() {
+		return this.paths.size();
+	}
+
+	/**
+	 * Gets the value for the shared hits field.
+	 * 
+	 * @return The value for the shared hits field.
+	 */
+	public long getSharedHits() {
+		return this.sharedHits.sum();
+	}
+
+	/**
+	 * Gets the value for the shared misses field.
+	 * 
+	 * @return The value for the shared misses field.
+	 */
+	public long getSharedMisses() {
+		return this.sharedMisses.sum();
+	}
+
+	/**
+	 * Gets the amount of shared entries.
+	 * 
+	 * @return The amount of shared entries.
+	 */
+	public int getSharedSize() {
+		return this.shared.size();
+	}
+
+	/**
+	 * Evicts all entries depending on the class.
+	 * 
+	 * @param clazz
+	 *            The class.
+	 * @return The amount of evicted shared entries.
+	 */
+	public int invalidate(final Class<?> clazz) {
+		int evicted = 0;
+		// Bump before removal, see clear, so a store registered after the
+		// removal still sees the invalidation.
+		this.generation.incrementAndGet();
+		final Set<Object> keys = this.dependents.remove(clazz);
+		if (!CheckUtil.isNull(keys)) {
+			for (final Object key : keys) {
+				if (key instanceof PathKey) {
+					final PathKey pathKey = (PathKey) key;
+					final TypePath path = this.paths.remove(pathKey);
+					if (!CheckUtil.isNull(path)) {
+						this.unregister(pathKey, ResolutionCache.getDependencies(path, pathKey.getTargetClazz()));
+					}
+				} else {
+					final CachedEntityType entry = this.shared.remove(key);
+					if (!CheckUtil.isNull(entry)) {
+						evicted = evicted + 1;
+						this.unregister(key, entry.getDependencies());
+					}
+				}
+			}
+			// Local tables are small, so they are dropped entirely.
+			this.generation.incrementAndGet();
+		}
+		return evicted;
+	}
+
+	/**
+	 * Looks up a resolution.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @return The cached resolution, or null if it is not cached.
+	 */
+	public CachedEntityType lookup(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		final int hash = EntityTypeKey.hash(clazz, genericParameter, targetClazz);
+		final LocalTable table = this.getLocalTable();
+		CachedEntityType result = null;
+		if (!CheckUtil.isNull(table)) {
+			result = table.get(hash & this.localMask);
+			if (!CheckUtil.isNull(result) && result.matches(clazz, genericParameter, targetClazz)) {
+				table.getCounts().hit();
+			} else {
+				table.getCounts().miss();
+				result = null;
+			}
+		}
+		if (CheckUtil.isNull(result)) {
+			if (CheckUtil.isNull(table)) {
+				result = this.shared.get(new EntityTypeKey(clazz, genericParameter, targetClazz));
+			} else {
+				result = table.getShared(this.shared, clazz, genericParameter, targetClazz, hash);
+			}
+			if (CheckUtil.isNull(result)) {
+				this.sharedMisses.increment();
+			} else {
+				this.sharedHits.increment();
+				result.markReferenced();
+				if (!CheckUtil.isNull(table)) {
+					table.put(hash & this.localMask, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up a type path.
+	 * 
+	 * @param clazz
+	 *            The type the path starts at.
+	 * @param targetClazz
+	 *            The target type.
+	 * @return The cached path, or null if it is not cached.
+	 */
+	public TypePath lookupPath(final Class<?> clazz, final Class<?> targetClazz) {
+		return this.paths.get(new PathKey(clazz, targetClazz));
+	}
+
+	/**
+	 * Stores a resolution made at the current generation.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @param type
+	 *            The resolved type, may be null.
+	 * @param dependencies
+	 *            The classes the resolution depends on.
+	 * @return The resolution.
+	 */
+	public CachedEntityType store(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz, final Type type,
+			final Collection<Class<?>> dependencies) {
+		return this.store(clazz, genericParameter, targetClazz, type, dependencies, this.generation.get());
+	}
+
+	/**
+	 * Stores a resolution. It is not cached if the generation changed since
+	 * the resolution started.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 * @param type
+	 *            The resolved type, may be null.
+	 * @param dependencies
+	 *            The classes the resolution depends on.
+	 * @param startGeneration
+	 *            The generation taken before the resolution started.
+	 * @return The resolution.
+	 */
+	public CachedEntityType store(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz, final Type type,
+			final Collection<Class<?>> dependencies, final int startGeneration) {
+		final CachedEntityType entry = new CachedEntityType(clazz, genericParameter, targetClazz, type,
+				dependencies.toArray(new Class<?>[dependencies.size()]));
+		boolean current = this.generation.get() == startGeneration;
+		if (current) {
+			final EntityTypeKey key = new EntityTypeKey(clazz, genericParameter, targetClazz);
+			// Register first, so an invalidation racing the store finds it.
+			this.register(key, entry.getDependencies());
+			if (CheckUtil.isNull(this.shared.putIfAbsent(key, entry))) {
+				if (this.generation.get() != startGeneration) {
+					// An invalidation started after the check, and may have
+					// missed the entry. Its registrations are left, they only
+					// cost a lookup when invalidated.
+					this.shared.remove(key, entry);
+					current = false;
+				} else if (this.shared.size() > this.sharedCapacity) {
+					this.evictShared(key);
+				}
+			}
+		}
+		final LocalTable table = this.getLocalTable();
+		if (current && !CheckUtil.isNull(table)) {
+			table.put(EntityTypeKey.hash(clazz, genericParameter, targetClazz) & this.localMask, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Stores a type path found at the current generation.
+	 * 
+	 * @param clazz
+	 *            The type the path starts at.
+	 * @param targetClazz
+	 *            The target type.
+	 * @param path
+	 *            The path.
+	 * @return The cached path, or the given path if it is not cached.
+	 */
+	public TypePath storePath(final Class<?> clazz, final Class<?> targetClazz, final TypePath path) {
+		return this.storePath(clazz, targetClazz, path, this.generation.get());
+	}
+
+	/**
+	 * Stores a type path. Past the shared capacity, a batch of paths is
+	 * evicted. Paths of subtypes keep sharing an evicted path. It is not
+	 * cached if the generation changed since the search started.
+	 * 
+	 * @param clazz
+	 *            The type the path starts at.
+	 * @param targetClazz
+	 *            The target type.
+	 * @param path
+	 *            The path.
+	 * @param startGeneration
+	 *            The generation taken before the search started.
+	 * @return The cached path, or the given path if it is not cached.
+	 */
+	public TypePath storePath(final Class<?> clazz, final Class<?> targetClazz, final TypePath path, final int startGeneration) {
+		TypePath result = path;
+		if (this.generation.get() == startGeneration) {
+			final PathKey key = new PathKey(clazz, targetClazz);
+			this.register(key, ResolutionCache.getDependencies(path, targetClazz));
+			final TypePath existing = this.paths.putIfAbsent(key, path);
+			if (!CheckUtil.isNull(existing)) {
+				result = existing;
+			} else if (this.generation.get() != startGeneration) {
+				// See store.
+				this.paths.remove(key, path);
+			} else if (this.paths.size() > this.sharedCapacity) {
+				this.evictPaths(key);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the virtual thread test.
+	 * 
+	 * @return The test, or null if there are no virtual threads.
+	 */
+	private static MethodHandle findIsVirtual() {
+		MethodHandle result;
+		try {
+			result = MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+		} catch (final NoSuchMethodException e) {
+			result = null;
+		} catch (final IllegalAccessException e) {
+			result = null;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the classes a type path depends on.
+	 * 
+	 * @param path
+	 *            The path.
+	 * @param targetClazz
+	 *            The target type.
+	 * @return The classes on the path and the target.
+	 */
+	private static Class<?>[] getDependencies(final TypePath path, final Class<?> targetClazz) {
+		final List<Class<?>> dependencies = new ArrayList<Class<?>>(path.size() + 1);
+		for (final Type type : path) {
+			if (type instanceof Class) {
+				dependencies.add((Class<?>) type);
+			}
+		}
+		dependencies.add(targetClazz);
+		return dependencies.toArray(new Class<?>[dependencies.size()]);
+	}
+
+	/**
+	 * Tests if the current thread is a virtual thread.
+	 * 
+	 * @param thread
+	 *            The thread.
+	 * @return True if and only if the thread is virtual.
+	 */
+	private static boolean isVirtual(final Thread thread) {
+		boolean result = false;
+		if (!CheckUtil.isNull(ResolutionCache.IS_VIRTUAL)) {
+			try {
+				result = (boolean) ResolutionCache.IS_VIRTUAL.invokeExact(thread);
+			} catch (final Throwable e) {
+				result = false;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Evicts a batch of type paths. Paths carry no hit marks, so the batch is
+	 * taken in iteration order.
+	 * 
+	 * @param stored
+	 *            The key of the path just stored, which is kept.
+	 */
+	private void evictPaths(final PathKey stored) {
+		if (this.sweeping.compareAndSet(false, true)) {
+			try {
+				int excess = (this.paths.size() - this.sharedCapacity) + this.evictionBatch;
+				final Iterator<Map.Entry<PathKey, TypePath>> iterator = this.paths.entrySet().iterator();
+				while ((excess > 0) && iterator.hasNext()) {
+					final Map.Entry<PathKey, TypePath> entry = iterator.next();
+					if (!stored.equals(entry.getKey()) && this.paths.remove(entry.getKey(), entry.getValue())) {
+						this.unregister(entry.getKey(), ResolutionCache.getDependencies(entry.getValue(), entry.getKey().getTargetClazz()));
+						this.evictions.increment();
+						excess = excess - 1;
+					}
+				}
+			} finally {
+				this.sweeping.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Evicts a batch of shared entries. Entries hit since the previous
+	 * sweep are skipped once, so a second pass evicts regardless.
+	 * 
+	 * @param stored
+	 *            The key of the entry just stored, which is kept.
+	 */
+	private void evictShared(final EntityTypeKey stored) {
+		if (this.sweeping.compareAndSet(false, true)) {
+			try {
+				int excess = (this.shared.size() - this.sharedCapacity) + this.evictionBatch;
+				for (int pass = 0; (pass < 2) && (excess > 0); pass = pass + 1) {
+					final Iterator<Map.Entry<EntityTypeKey, CachedEntityType>> iterator = this.shared.entrySet().iterator();
+					while ((excess > 0) && iterator.hasNext()) {
+						final Map.Entry<EntityTypeKey, CachedEntityType> entry = iterator.next();
+						final CachedEntityType cached = entry.getValue();
+						if (!stored.equals(entry.getKey()) && !cached.clearReferenced() && this.shared.remove(entry.getKey(), cached)) {
+							this.unregister(entry.getKey(), cached.getDependencies());
+							this.evictions.increment();
+							excess = excess - 1;
+						}
+					}
+				}
+			} finally {
+				this.sweeping.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Folds the counts of collected local tables into the retired counts.
+	 */
+	private void expungeTables() {
+		Reference<? extends LocalTable> reference = this.retiredTables.poll();
+		while (!CheckUtil.isNull(reference)) {
+			final LocalTableReference retired = (LocalTableReference) reference;
+			if (this.localTableSet.remove(retired)) {
+				this.retiredHits.add(retired.getCounts().getHits());
+				this.retiredMisses.add(retired.getCounts().getMisses());
+			}
+			reference = this.retiredTables.poll();
+		}
+	}
+
+	/**
+	 * Registers an entry with the classes it depends on.
+	 * 
+	 * @param key
+	 *            The entry or path key.
+	 * @param dependencies
+	 *            The classes the entry depends on.
+	 */
+	private void register(final Object key, final Class<?>[] dependencies) {
+		// Adding within compute, so a removal cannot drop the set in between.
+		final KeyAddition addition = new KeyAddition(key);
+		for (final Class<?> dependency : dependencies) {
+			this.dependents.compute(dependency, addition);
+		}
+	}
+
+	/**
+	 * Removes the registrations of an evicted entry.
+	 * 
+	 * @param key
+	 *            The entry or path key.
+	 * @param dependencies
+	 *            The classes the entry depended on.
+	 */
+	private void unregister(final Object key, final Class<?>[] dependencies) {
+		final KeyRemoval removal = new KeyRemoval(key);
+		for (final Class<?> dependency : dependencies) {
+			this.dependents.computeIfPresent(dependency, removal);
+		}
+	}
+
+	/**
+	 * Gets the local table of the current thread.
+	 * 
+	 * @return The table, or null if the thread has none.
+	 */
+	private LocalTable getLocalTable() {
+		LocalTable table = null;
+		if (!CheckUtil.isNull(this.localTables) && !ResolutionCache.isVirtual(Thread.currentThread())) {
+			table = this.localTables.get();
+			table.validate(this.generation.get());
+		}
+		return table;
+	}
+
+	/**
+	 * Adds a key to the registrations of a class, creating them if needed.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class KeyAddition
+			implements BiFunction<Class<?>, Set<Object>, Set<Object>> {
+		/** The key to add. */
+		private final transient Object key;
+
+		/**
+		 * Constructs the addition.
+		 * 
+		 * @param key
+		 *            The key to add.
+		 */
+		public KeyAddition(final Object key) {
+			this.key = key;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Set<Object> apply(final Class<?> dependency, final Set<Object> keys) {
+			Set<Object> result = keys;
+			if (CheckUtil.isNull(result)) {
+				result = ConcurrentHashMap.newKeySet();
+			}
+			result.add(this.key);
+			return result;
+		}
+	}
+
+	/**
+	 * A reusable key to probe the shared entries with, equal to the entity
+	 * type key of the same resolution.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class KeyProbe {
+		/** The entity type. */
+		private transient Class<?> clazz;
+		/** The generic parameter. */
+		private transient int genericParameter;
+		/** The hash code. */
+		private transient int hash;
+		/** The target type. */
+		private transient Class<?> targetClazz;
+
+		/**
+		 * Constructs the probe.
+		 */
+		public KeyProbe() {
+			// Default constructor.
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean equals(final Object obj) {
+			boolean result = false;
+			if (obj instanceof EntityTypeKey) {
+				final EntityTypeKey other = (EntityTypeKey) obj;
+				result = (this.clazz == other.getClazz()) && (this.genericParameter == other.getGenericParameter())
+						&& (this.targetClazz == other.getTargetClazz());
+			}
+			return result;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		/**
+		 * Drops the probed classes.
+		 */
+		public void reset() {
+			this.clazz = null;
+			this.targetClazz = null;
+		}
+
+		/**
+		 * Sets the probed resolution.
+		 * 
+		 * @param clazz
+		 *            The entity type.
+		 * @param genericParameter
+		 *            The generic parameter.
+		 * @param targetClazz
+		 *            The target type.
+		 * @param hash
+		 *            The hash of the resolution.
+		 */
+		public void set(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz, final int hash) {
+			this.clazz = clazz;
+			this.genericParameter = genericParameter;
+			this.targetClazz = targetClazz;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Removes a key from the registrations of a class, dropping empty ones.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class KeyRemoval
+			implements BiFunction<Class<?>, Set<Object>, Set<Object>> {
+		/** The key to remove. */
+		private final transient Object key;
+
+		/**
+		 * Constructs the removal.
+		 * 
+		 * @param key
+		 *            The key to remove.
+		 */
+		public KeyRemoval(final Object key) {
+			this.key = key;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Set<Object> apply(final Class<?> dependency, final Set<Object> keys) {
+			keys.remove(this.key);
+			Set<Object> result = keys;
+			if (keys.isEmpty()) {
+				result = null;
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The hits and misses of a local table. Only the owning thread writes the
+	 * counts, so they are plain fields that other threads may read stale.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class LocalCounts {
+		/** The hits. */
+		private transient long hits;
+		/** The misses. */
+		private transient long misses;
+
+		/**
+		 * Constructs the counts.
+		 */
+		public LocalCounts() {
+			// Default constructor.
+		}
+
+		/**
+		 * Gets the value for the hits field.
+		 * 
+		 * @return The value for the hits field.
+		 */
+		public long getHits() {
+			return this.hits;
+		}
+
+		/**
+		 * Gets the value for the misses field.
+		 * 
+		 * @return The value for the misses field.
+		 */
+		public long getMisses() {
+			return this.misses;
+		}
+
+		/**
+		 * Counts a hit.
+		 */
+		public void hit() {
+			this.hits = this.hits + 1;
+		}
+
+		/**
+		 * Counts a miss.
+		 */
+		public void miss() {
+			this.misses = this.misses + 1;
+		}
+	}
+
+	/**
+	 * A direct mapped table local to a thread.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class LocalTable {
+		/** The hits and misses. */
+		private final transient LocalCounts counts = new LocalCounts();
+		/** The entries. */
+		private final transient CachedEntityType[] entries;
+		/** The generation of the entries. */
+		private transient int generation;
+		/** The probe for shared entries. */
+		private final transient KeyProbe probe = new KeyProbe();
+
+		/**
+		 * Constructs the table.
+		 * 
+		 * @param size
+		 *            The size.
+		 */
+		public LocalTable(final int size) {
+			this.entries = new CachedEntityType[size];
+		}
+
+		/**
+		 * Drops all entries.
+		 */
+		public void clear() {
+			Arrays.fill(this.entries, null);
+		}
+
+		/**
+		 * Gets an entry.
+		 * 
+		 * @param index
+		 *            The index.
+		 * @return The entry, may be null.
+		 */
+		public CachedEntityType get(final int index) {
+			return this.entries[index];
+		}
+
+		/**
+		 * Gets the value for the counts field.
+		 * 
+		 * @return The value for the counts field.
+		 */
+		public LocalCounts getCounts() {
+			return this.counts;
+		}
+
+		/**
+		 * Gets a shared entry without allocating a key.
+		 * 
+		 * @param shared
+		 *            The shared entries.
+		 * @param clazz
+		 *            The entity type.
+		 * @param genericParameter
+		 *            The generic parameter.
+		 * @param targetClazz
+		 *            The target type.
+		 * @param hash
+		 *            The hash of the resolution.
+		 * @return The entry, or null if it is not shared.
+		 */
+		public CachedEntityType getShared(final Map<EntityTypeKey, CachedEntityType> shared, final Class<?> clazz,
+				final int genericParameter, final Class<?> targetClazz, final int hash) {
+			this.probe.set(clazz, genericParameter, targetClazz, hash);
+			final CachedEntityType result = shared.get(this.probe);
+			this.probe.reset();
+			return result;
+		}
+
+		/**
+		 * Puts an entry.
+		 * 
+		 * @param index
+		 *            The index.
+		 * @param entry
+		 *            The entry.
+		 */
+		public void put(final int index, final CachedEntityType entry) {
+			this.entries[index] = entry;
+		}
+
+		/**
+		 * Drops the entries if they are of an older generation.
+		 * 
+		 * @param current
+		 *            The current generation.
+		 */
+		public void validate(final int current) {
+			if (this.generation != current) {
+				this.clear();
+				this.generation = current;
+			}
+		}
+	}
+
+	/**
+	 * A weak reference to a local table, keeping its counts.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class LocalTableReference
+			extends WeakReference<LocalTable> {
+		/** The counts of the table. */
+		private final transient LocalCounts counts;
+
+		/**
+		 * Constructs the reference.
+		 * 
+		 * @param table
+		 *            The table.
+		 * @param queue
+		 *            The queue of collected tables.
+		 */
+		public LocalTableReference(final LocalTable table, final ReferenceQueue<LocalTable> queue) {
+			super(table, queue);
+			this.counts = table.getCounts();
+		}
+
+		/**
+		 * Gets the value for the counts field.
+		 * 
+		 * @return The value for the counts field.
+		 */
+		public LocalCounts getCounts() {
+			return this.counts;
+		}
+	}
+
+	/**
+	 * The key of a type path.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class PathKey {
+		/** The type the path starts at. */
+		private final transient Class<?> clazz;
+		/** The hash code. */
+		private final transient int hash;
+		/** The target type. */
+		private final transient Class<?> targetClazz;
+
+		/**
+		 * Constructs the key.
+		 * 
+		 * @param clazz
+		 *            The type the path starts at.
+		 * @param targetClazz
+		 *            The target type.
+		 */
+		public PathKey(final Class<?> clazz, final Class<?> targetClazz) {
+			this.clazz = clazz;
+			this.targetClazz = targetClazz;
+			this.hash = EntityTypeKey.hash(clazz, 0, targetClazz);
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean equals(final Object obj) {
+			boolean result = false;
+			if (this == obj) {
+				result = true;
+			} else if (obj instanceof PathKey) {
+				final PathKey other = (PathKey) obj;
+				result = (this.clazz == other.clazz) && (this.targetClazz == other.targetClazz);
+			}
+			return result;
+		}
+
+		/**
+		 * Gets the value for the target clazz field.
+		 * 
+		 * @return The value for the target clazz field.
+		 */
+		public Class<?> getTargetClazz() {
+			return this.targetClazz;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+}
@@ -0,0 +1,230 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * An immutable type path. Paths share their suffixes, so the paths of all
+ * subclasses of a base share the path of that base, and extending a path by a
+ * subclass adds a single node.
+ * 
+ * @author agent (agent@local)
+ */
+public final class TypePath
+		implements Iterable<Type> {
+
+	/** The empty path. */
+	public static final TypePath EMPTY = new TypePath(null, null);
+
+	/** The first type, null if empty. */
+	private final transient Type head;
+	/** The amount of types. */
+	private final transient int size;
+	/** The remaining path, null if empty. */
+	private final transient TypePath tail;
+
+	/**
+	 * Constructs the path.
+	 * 
+	 * @param head
+	 *            The first type.
+	 * @param tail
+	 *            The remaining path.
+	 */
+	private TypePath(final Type head, final TypePath tail) {
+		this.head = head;
+		this.tail = tail;
+		if (CheckUtil.isNull(tail)) {
+			this.size = 0;
+		} else {
+			this.size = tail.size + 1;
+		}
+	}
+
+	/**
+	 * Iterates the path from the last type to the first.
+	 * 
+	 * @return The iterator.
+	 */
+	public Iterator<Type> descendingIterator() {
+		final Type[] types = new Type[this.size];
+		TypePath current = this;
+		for (int i = 0; i < types.length; i = i + 1) {
+			types[i] = current.head;
+			current = current.tail;
+		}
+		return new DescendingIterator(types);
+	}
+
+	/**
+	 * Gets the value for the head field.
+	 * 
+	 * @return The value for the head field, null if empty.
+	 */
+	public Type getHead() {
+		return this.head;
+	}
+
+	/**
+	 * Gets the value for the tail field.
+	 * 
+	 * @return The value for the tail field, null if empty.
+	 */
+	public TypePath getTail() {
+		return this.tail;
+	}
+
+	/**
+	 * Tests if the path is empty.
+	 * 
+	 * @return True if and only if the path has no types.
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Iterator<Type> iterator() {
+		return new PathIterator(this);
+	}
+
+	/**
+	 * Creates a path starting with the type, followed by this path.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @return The path.
+	 */
+	public TypePath prepend(final Type type) {
+		return new TypePath(type, this);
+	}
+
+	/**
+	 * Gets the value for the size field.
+	 * 
+	 * @return The value for the size field.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Copies the path.
+	 * 
+	 * @return A modifiable copy of the path.
+	 */
+	public LinkedList<Type> toDeque() {
+		final LinkedList<Type> result = new LinkedList<Type>();
+		for (final Type type : this) {
+			result.add(type);
+		}
+		return result;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return this.toDeque().toString();
+	}
+
+	/**
+	 * An iterator over the types of a path, from last to first.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class DescendingIterator
+			implements Iterator<Type> {
+		/** The index of the next type. */
+		private transient int index;
+		/** The types, first to last. */
+		private final transient Type[] types;
+
+		/**
+		 * Constructs the iterator.
+		 * 
+		 * @param types
+		 *            The types, first to last.
+		 */
+		public DescendingIterator(final Type[] types) {
+			this.types = types;
+			this.index = types.length - 1;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean hasNext() {
+			return this.index >= 0;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Type next() {
+			if (this.index < 0) {
+				throw new NoSuchElementException();
+			}
+			final Type type = this.types[this.index];
+			this.index = this.index - 1;
+			return type;
+		}
+	}
+
+	/**
+	 * An iterator over a path.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class PathIterator
+			implements Iterator<Type> {
+		/** The remaining path. */
+		private transient TypePath remaining;
+
+		/**
+		 * Constructs the iterator.
+		 * 
+		 * @param path
+		 *            The path.
+		 */
+		public PathIterator(final TypePath path) {
+			this.remaining = path;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean hasNext() {
+			return !this.remaining.isEmpty();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Type next() {
+			if (this.remaining.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			final Type type = this.remaining.head;
+			this.remaining = this.remaining.tail;
+			return type;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.event;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A flight recorder event describing a single generics resolution. The
+ * threshold may be overridden via the recording settings using the event name.
+ * 
+ * @author agent (agent@local)
+ */
+@Name(ResolutionEvent.NAME)
+@Label("Generics Resolution")
+@Category({ "Lunar Ray", "Generics" })
+@Description("A generics resolution that took longer than the threshold.")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class ResolutionEvent
+		extends Event {
+
+	/** The event name. */
+	public static final String NAME = "org.lunarray.common.generics.Resolution";
+
+	/** The resolution operation. */
+	@Label("Operation")
+	private String operation;
+	/** The input type. */
+	@Label("Type")
+	private String type;
+	/** The target type. */
+	@Label("Target")
+	private Class<?> target;
+	/** The generic parameter. */
+	@Label("Parameter")
+	private int parameter;
+	/** The path length. */
+	@Label("Path Length")
+	private int pathLength;
+	/** The recursion depth. */
+	@Label("Depth")
+	private int depth;
+	/** Whether the result was cached. */
+	@Label("Cached")
+	private boolean cached;
+
+	/**
+	 * Default constructor.
+	 */
+	ResolutionEvent() {
+		super();
+	}
+
+	/**
+	 * Sets a new value for the cached field.
+	 * 
+	 * @param cached
+	 *            The new value for the cached field.
+	 */
+	void setCached(final boolean cached) {
+		this.cached = cached;
+	}
+
+	/**
+	 * Sets a new value for the depth field.
+	 * 
+	 * @param depth
+	 *            The new value for the depth field.
+	 */
+	void setDepth(final int depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * Sets a new value for the operation field.
+	 * 
+	 * @param operation
+	 *            The new value for the operation field.
+	 */
+	void setOperation(final String operation) {
+		this.operation = operation;
+	}
+
+	/**
+	 * Sets a new value for the parameter field.
+	 * 
+	 * @param parameter
+	 *            The new value for the parameter field.
+	 */
+	void setParameter(final int parameter) {
+		this.parameter = parameter;
+	}
+
+	/**
+	 * Sets a new value for the path length field.
+	 * 
+	 * @param pathLength
+	 *            The new value for the path length field.
+	 */
+	void setPathLength(final int pathLength) {
+		this.pathLength = pathLength;
+	}
+
+	/**
+	 * Sets a new value for the target field.
+	 * 
+	 * @param target
+	 *            The new value for the target field.
+	 */
+	void setTarget(final Class<?> target) {
+		this.target = target;
+	}
+
+	/**
+	 * Sets a new value for the type field.
+	 * 
+	 * @param type
+	 *            The new value for the type field.
+	 */
+	void setType(final String type) {
+		this.type = type;
+	}
+}
@@ -0,0 +1,113 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.event;
+
+import java.lang.reflect.Type;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * Emits resolution events if the flight recorder is available and the event
+ * is enabled. The event class is only touched when the flight recorder API is
+ * present, so this is safe to use on runtimes without it.
+ * 
+ * @author agent (agent@local)
+ */
+public enum ResolutionEvents {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** Whether the flight recorder is available. */
+	private static final boolean AVAILABLE = ResolutionEvents.detectAvailable();
+
+	/**
+	 * Begins timing a resolution.
+	 * 
+	 * @return The started event, or null if events are unavailable or
+	 *         disabled.
+	 */
+	public static ResolutionEvent begin() {
+		ResolutionEvent event = null;
+		if (ResolutionEvents.AVAILABLE) {
+			final ResolutionEvent candidate = new ResolutionEvent();
+			if (candidate.isEnabled()) {
+				candidate.begin();
+				event = candidate;
+			}
+		}
+		return event;
+	}
+
+	/**
+	 * Commits the resolution if it passes the configured threshold.
+	 * 
+	 * @param event
+	 *            The event, may be null.
+	 * @param operation
+	 *            The operation.
+	 * @param type
+	 *            The input type, may be null.
+	 * @param target
+	 *            The target type, may be null.
+	 * @param parameter
+	 *            The parameter, or -1 if not applicable.
+	 * @param pathLength
+	 *            The path length.
+	 * @param depth
+	 *            The recursion depth.
+	 * @param cached
+	 *            Whether the result came from a cache.
+	 */
+	public static void commit(final ResolutionEvent event, final String operation, final Type type, final Class<?> target,
+			final int parameter, final int pathLength, final int depth, final boolean cached) {
+		if (!CheckUtil.isNull(event)) {
+			event.end();
+			if (event.shouldCommit()) {
+				event.setOperation(operation);
+				if (!CheckUtil.isNull(type)) {
+					event.setType(type.getTypeName());
+				}
+				event.setTarget(target);
+				event.setParameter(parameter);
+				event.setPathLength(pathLength);
+				event.setDepth(depth);
+				event.setCached(cached);
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Detects whether the flight recorder API is available.
+	 * 
+	 * @return True if and only if it is available.
+	 */
+	private static boolean detectAvailable() {
+		boolean available;
+		try {
+			Class.forName("jdk.jfr.Event", false, ResolutionEvents.class.getClassLoader());
+			available = true;
+		} catch (final ClassNotFoundException e) {
+			available = false;
+		} catch (final LinkageError e) {
+			available = false;
+		}
+		return available;
+	}
+}
@@ -43,6 +43,18 @@ public final class MemberField
 		this.field = field;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(final Object obj) {
+		boolean result = false;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof MemberField) {
+			result = this.field.equals(((MemberField) obj).field);
+		}
+		return result;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Class<?> getDeclaringType() {
@@ -54,4 +66,19 @@ public final class MemberField
 	public Type getGenericType() {
 		return this.field.getGenericType();
 	}
+
+	/**
+	 * Gets the value for the field field.
+	 * 
+	 * @return The value for the field field.
+	 */
+	public Field getField() {
+		return this.field;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return this.field.hashCode();
+	}
 }
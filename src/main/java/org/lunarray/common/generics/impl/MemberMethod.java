@@ -31,6 +31,9 @@ import org.lunarray.common.generics.Member;
 public final class MemberMethod
 		implements Member {
 
+	/** Hash prime. */
+	private static final int PRIME = 31;
+
 	/** The method. */
 	private final transient Method method;
 	/** The parameter. */
@@ -49,6 +52,19 @@ public final class MemberMethod
 		this.param = param;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(final Object obj) {
+		boolean result = false;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof MemberMethod) {
+			final MemberMethod other = (MemberMethod) obj;
+			result = (this.param == other.param) && this.method.equals(other.method);
+		}
+		return result;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Class<?> getDeclaringType() {
@@ -59,11 +75,37 @@ public final class MemberMethod
 	@Override
 	public Type getGenericType() {
 		Type resultType;
-		if (CheckUtil.checkBounds(this.param, this.method.getGenericParameterTypes())) {
-			resultType = this.method.getGenericParameterTypes()[this.param];
+		final Type[] parameterTypes = this.method.getGenericParameterTypes();
+		if (CheckUtil.checkBounds(this.param, parameterTypes)) {
+			resultType = parameterTypes[this.param];
 		} else {
 			resultType = this.method.getGenericReturnType();
 		}
 		return resultType;
 	}
+
+	/**
+	 * Gets the value for the method field.
+	 * 
+	 * @return The value for the method field.
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Gets the value for the param field.
+	 * 
+	 * @return The value for the param field. If less than 0, the return type
+	 *         is used.
+	 */
+	public int getParam() {
+		return this.param;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return (MemberMethod.PRIME * this.method.hashCode()) + this.param;
+	}
 }
@@ -0,0 +1,246 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * Reads the generic declaration of a class from its class file. Only the
+ * constant pool, the class header and the class attributes are interpreted.
+ * 
+ * @author agent (agent@local)
+ */
+enum ClassFileReader {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** The class file magic. */
+	private static final int MAGIC = 0xCAFEBABE;
+	/** The signature attribute name. */
+	private static final String SIGNATURE = "Signature";
+	/** Constant pool tag. */
+	private static final int TAG_CLASS = 7;
+	/** Constant pool tag. */
+	private static final int TAG_DOUBLE = 6;
+	/** Constant pool tag. */
+	private static final int TAG_DYNAMIC = 17;
+	/** Constant pool tag. */
+	private static final int TAG_FIELD_REF = 9;
+	/** Constant pool tag. */
+	private static final int TAG_FLOAT = 4;
+	/** Constant pool tag. */
+	private static final int TAG_INTEGER = 3;
+	/** Constant pool tag. */
+	private static final int TAG_INTERFACE_METHOD_REF = 11;
+	/** Constant pool tag. */
+	private static final int TAG_INVOKE_DYNAMIC = 18;
+	/** Constant pool tag. */
+	private static final int TAG_LONG = 5;
+	/** Constant pool tag. */
+	private static final int TAG_METHOD_HANDLE = 15;
+	/** Constant pool tag. */
+	private static final int TAG_METHOD_REF = 10;
+	/** Constant pool tag. */
+	private static final int TAG_METHOD_TYPE = 16;
+	/** Constant pool tag. */
+	private static final int TAG_MODULE = 19;
+	/** Constant pool tag. */
+	private static final int TAG_NAME_AND_TYPE = 12;
+	/** Constant pool tag. */
+	private static final int TAG_PACKAGE = 20;
+	/** Constant pool tag. */
+	private static final int TAG_STRING = 8;
+	/** Constant pool tag. */
+	private static final int TAG_UTF8 = 1;
+
+	/**
+	 * Reads a class file.
+	 * 
+	 * @param input
+	 *            The class file contents.
+	 * @return The class signature.
+	 * @throws IOException
+	 *             Thrown if the class file could not be read or is malformed.
+	 */
+	static ClassSignature read(final InputStream input) throws IOException {
+		final DataInputStream data = new DataInputStream(input);
+		if (data.readInt() != ClassFileReader.MAGIC) {
+			throw new IOException("Not a class file.");
+		}
+		// Minor and major version.
+		data.readUnsignedShort();
+		data.readUnsignedShort();
+		final int poolSize = data.readUnsignedShort();
+		final String[] utf8 = new String[poolSize];
+		final int[] classNames = new int[poolSize];
+		for (int i = 1; i < poolSize; i = i + 1) {
+			final int tag = data.readUnsignedByte();
+			if (tag == ClassFileReader.TAG_UTF8) {
+				utf8[i] = data.readUTF();
+			} else if (tag == ClassFileReader.TAG_CLASS) {
+				classNames[i] = data.readUnsignedShort();
+			} else if ((tag == ClassFileReader.TAG_LONG) || (tag == ClassFileReader.TAG_DOUBLE)) {
+				data.readLong();
+				// Takes two entries.
+				i = i + 1;
+			} else {
+				ClassFileReader.skip(data, ClassFileReader.constantSize(tag));
+			}
+		}
+		// Access flags.
+		data.readUnsignedShort();
+		final String name = utf8[classNames[data.readUnsignedShort()]];
+		final int superIndex = data.readUnsignedShort();
+		TypeSignature superclass = null;
+		if (superIndex != 0) {
+			superclass = ClassFileReader.rawType(utf8[classNames[superIndex]]);
+		}
+		final int interfaceCount = data.readUnsignedShort();
+		final List<TypeSignature> interfaces = new ArrayList<TypeSignature>();
+		for (int i = 0; i < interfaceCount; i = i + 1) {
+			interfaces.add(ClassFileReader.rawType(utf8[classNames[data.readUnsignedShort()]]));
+		}
+		// Fields and methods.
+		ClassFileReader.skipMembers(data);
+		ClassFileReader.skipMembers(data);
+		String signature = null;
+		final int attributeCount = data.readUnsignedShort();
+		for (int i = 0; i < attributeCount; i = i + 1) {
+			final String attributeName = utf8[data.readUnsignedShort()];
+			final int length = data.readInt();
+			if (ClassFileReader.SIGNATURE.equals(attributeName)) {
+				signature = utf8[data.readUnsignedShort()];
+			} else {
+				ClassFileReader.skip(data, length);
+			}
+		}
+		ClassSignature result;
+		if (CheckUtil.isNull(signature)) {
+			result = new ClassSignature(name, Collections.<String> emptyList(), superclass, interfaces);
+		} else {
+			try {
+				result = new SignatureParser(signature).parseClassSignature(name);
+			} catch (final IllegalArgumentException e) {
+				throw new IOException("Malformed signature of " + name + ".", e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the size of a constant pool entry, excluding its tag.
+	 * 
+	 * @param tag
+	 *            The tag.
+	 * @return The size.
+	 * @throws IOException
+	 *             Thrown if the tag is unknown.
+	 */
+	private static int constantSize(final int tag) throws IOException {
+		int size;
+		switch (tag) {
+		case TAG_STRING:
+		case TAG_METHOD_TYPE:
+		case TAG_MODULE:
+		case TAG_PACKAGE:
+			size = 2;
+			break;
+		case TAG_METHOD_HANDLE:
+			size = 3;
+			break;
+		case TAG_INTEGER:
+		case TAG_FLOAT:
+		case TAG_FIELD_REF:
+		case TAG_METHOD_REF:
+		case TAG_INTERFACE_METHOD_REF:
+		case TAG_NAME_AND_TYPE:
+		case TAG_DYNAMIC:
+		case TAG_INVOKE_DYNAMIC:
+			size = 4;
+			break;
+		default:
+			throw new IOException("Unknown constant pool tag " + tag + ".");
+		}
+		return size;
+	}
+
+	/**
+	 * Creates a type without arguments.
+	 * 
+	 * @param name
+	 *            The internal name.
+	 * @return The type.
+	 */
+	private static TypeSignature rawType(final String name) {
+		return new TypeSignature(TypeSignature.Kind.CLASS, name, Collections.<TypeSignature> emptyList(), null);
+	}
+
+	/**
+	 * Skips bytes.
+	 * 
+	 * @param data
+	 *            The input.
+	 * @param length
+	 *            The amount of bytes.
+	 * @throws IOException
+	 *             Thrown if the input ended.
+	 */
+	private static void skip(final DataInputStream data, final int length) throws IOException {
+		int remaining = length;
+		while (remaining > 0) {
+			int skipped = data.skipBytes(remaining);
+			if (skipped <= 0) {
+				// Fails at the end of the input.
+				data.readByte();
+				skipped = 1;
+			}
+			remaining = remaining - skipped;
+		}
+	}
+
+	/**
+	 * Skips the fields or methods.
+	 * 
+	 * @param data
+	 *            The input.
+	 * @throws IOException
+	 *             Thrown if the input ended.
+	 */
+	private static void skipMembers(final DataInputStream data) throws IOException {
+		final int count = data.readUnsignedShort();
+		for (int i = 0; i < count; i = i + 1) {
+			// Access flags, name and descriptor.
+			data.readUnsignedShort();
+			data.readUnsignedShort();
+			data.readUnsignedShort();
+			final int attributeCount = data.readUnsignedShort();
+			for (int j = 0; j < attributeCount; j = j + 1) {
+				data.readUnsignedShort();
+				ClassFileReader.skip(data, data.readInt());
+			}
+		}
+	}
+}
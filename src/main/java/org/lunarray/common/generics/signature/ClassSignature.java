@@ -0,0 +1,95 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The generic declaration of a class as read from its class file.
+ * 
+ * @author agent (agent@local)
+ */
+public final class ClassSignature {
+
+	/** The implemented interfaces. */
+	private final transient List<TypeSignature> interfaces;
+	/** The internal name. */
+	private final transient String name;
+	/** The superclass, may be null. */
+	private final transient TypeSignature superclass;
+	/** The type parameter names. */
+	private final transient List<String> typeParameters;
+
+	/**
+	 * Constructs the signature.
+	 * 
+	 * @param name
+	 *            The internal name.
+	 * @param typeParameters
+	 *            The type parameter names.
+	 * @param superclass
+	 *            The superclass, may be null.
+	 * @param interfaces
+	 *            The implemented interfaces.
+	 */
+	ClassSignature(final String name, final List<String> typeParameters, final TypeSignature superclass,
+			final List<TypeSignature> interfaces) {
+		this.name = name;
+		this.typeParameters = Collections.unmodifiableList(typeParameters);
+		this.superclass = superclass;
+		this.interfaces = Collections.unmodifiableList(interfaces);
+	}
+
+	/**
+	 * Gets the value for the interfaces field.
+	 * 
+	 * @return The value for the interfaces field.
+	 */
+	public List<TypeSignature> getInterfaces() {
+		return this.interfaces;
+	}
+
+	/**
+	 * Gets the value for the name field.
+	 * 
+	 * @return The value for the name field.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Gets the value for the superclass field.
+	 * 
+	 * @return The value for the superclass field, null for
+	 *         {@code java/lang/Object}.
+	 */
+	public TypeSignature getSuperclass() {
+		return this.superclass;
+	}
+
+	/**
+	 * Gets the value for the type parameters field.
+	 * 
+	 * @return The value for the type parameters field.
+	 */
+	public List<String> getTypeParameters() {
+		return this.typeParameters;
+	}
+}
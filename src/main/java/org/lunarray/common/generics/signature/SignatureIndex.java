@@ -0,0 +1,346 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * Resolves generics from class files in directories and jars, without loading
+ * the classes. This is meant for indexing and precomputation over large class
+ * paths. Classes may be given as binary names or internal names, results use
+ * internal names. Type variables of enclosing classes are not resolved.
+ * 
+ * @author agent (agent@local)
+ */
+public final class SignatureIndex
+		implements Closeable {
+
+	/** The class file suffix. */
+	private static final String CLASS_SUFFIX = ".class";
+
+	/** The directories. */
+	private final transient List<File> directories;
+	/** The jars. */
+	private final transient List<ZipFile> jars;
+	/** The names of classes that could not be found. */
+	private final transient Set<String> missing;
+	/** The loader to fall back to for resources, may be null. */
+	private final transient ClassLoader resources;
+	/** The read signatures. */
+	private final transient ConcurrentMap<String, ClassSignature> signatures;
+
+	/**
+	 * Constructs the index.
+	 * 
+	 * @param resources
+	 *            The class loader to read class files not in the roots from,
+	 *            such as platform classes. May be null.
+	 * @param roots
+	 *            The directories and jars to read class files from.
+	 * @throws IOException
+	 *             Thrown if a jar could not be opened.
+	 */
+	public SignatureIndex(final ClassLoader resources, final File... roots) throws IOException {
+		this.resources = resources;
+		this.directories = new ArrayList<File>();
+		this.jars = new ArrayList<ZipFile>();
+		this.missing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		this.signatures = new ConcurrentHashMap<String, ClassSignature>();
+		try {
+			for (final File root : roots) {
+				if (root.isDirectory()) {
+					this.directories.add(root);
+				} else {
+					this.jars.add(new ZipFile(root));
+				}
+			}
+		} catch (final IOException e) {
+			this.close();
+			throw e;
+		}
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		for (final ZipFile jar : this.jars) {
+			try {
+				jar.close();
+			} catch (final IOException e) {
+				failure = e;
+			}
+		}
+		if (!CheckUtil.isNull(failure)) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Find the type path leading from the class to the target.
+	 * 
+	 * @param className
+	 *            The class.
+	 * @param targetName
+	 *            The target class.
+	 * @return The class with its own type variables as arguments, followed by
+	 *         the supertypes as declared up to the target. Empty if the target
+	 *         is not a supertype.
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	public List<TypeSignature> findTypePath(final String className, final String targetName) throws IOException {
+		final String name = SignatureIndex.internalName(className);
+		final ClassSignature signature = this.getClassSignature(name);
+		final List<TypeSignature> path = new LinkedList<TypeSignature>();
+		if (!CheckUtil.isNull(signature)) {
+			final List<TypeSignature> suffix = this.findSupertypePath(name, SignatureIndex.internalName(targetName), new HashSet<String>());
+			if (!CheckUtil.isNull(suffix)) {
+				final List<TypeSignature> variables = new ArrayList<TypeSignature>();
+				for (final String typeParameter : signature.getTypeParameters()) {
+					variables.add(new TypeSignature(TypeSignature.Kind.VARIABLE, typeParameter, Collections.<TypeSignature> emptyList(), null));
+				}
+				path.add(new TypeSignature(TypeSignature.Kind.CLASS, name, variables, null));
+				path.addAll(suffix);
+			}
+		}
+		return path;
+	}
+
+	/**
+	 * Gets the generic declaration of a class.
+	 * 
+	 * @param className
+	 *            The class.
+	 * @return The declaration, or null if the class file could not be found.
+	 * @throws IOException
+	 *             Thrown if the class file could not be read.
+	 */
+	public ClassSignature getClassSignature(final String className) throws IOException {
+		final String name = SignatureIndex.internalName(className);
+		ClassSignature result = this.signatures.get(name);
+		if (CheckUtil.isNull(result) && !this.missing.contains(name)) {
+			final InputStream input = this.open(name + SignatureIndex.CLASS_SUFFIX);
+			if (CheckUtil.isNull(input)) {
+				this.missing.add(name);
+			} else {
+				try {
+					result = ClassFileReader.read(input);
+				} finally {
+					input.close();
+				}
+				this.signatures.putIfAbsent(name, result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the generic argument of a class for a target.
+	 * 
+	 * @param className
+	 *            The class.
+	 * @param genericParameter
+	 *            The generic parameter of the target.
+	 * @param targetName
+	 *            The target class.
+	 * @return The argument, expressed in the type variables of the class if
+	 *         it cannot be resolved further. Erased if the path passes a raw
+	 *         supertype, so null if the argument then is a type variable or a
+	 *         wildcard. Null if the target is not a generic supertype.
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	public TypeSignature getEntityGenericType(final String className, final int genericParameter, final String targetName)
+			throws IOException {
+		final List<TypeSignature> path = this.findTypePath(className, targetName);
+		TypeSignature result = null;
+		if (!path.isEmpty()) {
+			final List<TypeSignature> arguments = path.get(path.size() - 1).getArguments();
+			if (CheckUtil.checkBounds(genericParameter, arguments)) {
+				result = arguments.get(genericParameter);
+			}
+		}
+		// Rewrite the argument into the variables of every subtype on the path.
+		for (int i = path.size() - 2; !CheckUtil.isNull(result) && (i >= 0); i = i - 1) {
+			final TypeSignature subtype = path.get(i);
+			final List<String> typeParameters = this.getClassSignature(subtype.getName()).getTypeParameters();
+			if (subtype.getArguments().isEmpty() && !typeParameters.isEmpty()) {
+				// The supertypes of a raw type are erased.
+				result = SignatureIndex.erase(result);
+			} else {
+				result = SignatureIndex.substitute(result, typeParameters, subtype.getArguments());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Erases a type. Bounds are not read, so type variables and wildcards
+	 * have no erasure.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @return The erased type, or null if it has no erasure.
+	 */
+	private static TypeSignature erase(final TypeSignature type) {
+		TypeSignature result = null;
+		if (TypeSignature.Kind.ARRAY == type.getKind()) {
+			final TypeSignature component = SignatureIndex.erase(type.getComponent());
+			if (!CheckUtil.isNull(component)) {
+				result = new TypeSignature(type.getKind(), type.getName(), type.getArguments(), component);
+			}
+		} else if (TypeSignature.Kind.CLASS == type.getKind()) {
+			result = new TypeSignature(type.getKind(), type.getName(), Collections.<TypeSignature> emptyList(), null);
+		} else if (TypeSignature.Kind.BASE == type.getKind()) {
+			result = type;
+		}
+		return result;
+	}
+
+	/**
+	 * Converts a binary name to an internal name.
+	 * 
+	 * @param className
+	 *            The binary or internal name.
+	 * @return The internal name.
+	 */
+	private static String internalName(final String className) {
+		return className.replace('.', '/');
+	}
+
+	/**
+	 * Substitutes type variables with their arguments.
+	 * 
+	 * @param type
+	 *            The type.
+	 * @param typeParameters
+	 *            The type parameter names.
+	 * @param arguments
+	 *            The arguments, empty for raw types.
+	 * @return The substituted type.
+	 */
+	private static TypeSignature substitute(final TypeSignature type, final List<String> typeParameters,
+			final List<TypeSignature> arguments) {
+		TypeSignature result = type;
+		if (TypeSignature.Kind.VARIABLE == type.getKind()) {
+			final int index = typeParameters.indexOf(type.getName());
+			if (CheckUtil.checkBounds(index, arguments)) {
+				result = arguments.get(index);
+			}
+		} else if (TypeSignature.Kind.ARRAY == type.getKind()) {
+			result = new TypeSignature(type.getKind(), type.getName(), type.getArguments(),
+					SignatureIndex.substitute(type.getComponent(), typeParameters, arguments));
+		} else if (!type.getArguments().isEmpty()) {
+			final List<TypeSignature> substituted = new ArrayList<TypeSignature>();
+			for (final TypeSignature argument : type.getArguments()) {
+				substituted.add(SignatureIndex.substitute(argument, typeParameters, arguments));
+			}
+			result = new TypeSignature(type.getKind(), type.getName(), substituted, type.getComponent());
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the supertypes leading from the class to the target.
+	 * 
+	 * @param name
+	 *            The internal name of the class.
+	 * @param targetName
+	 *            The internal name of the target.
+	 * @param visited
+	 *            The classes already searched.
+	 * @return The supertypes as declared, or null if the target is not a
+	 *         supertype.
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	private List<TypeSignature> findSupertypePath(final String name, final String targetName, final Set<String> visited)
+			throws IOException {
+		List<TypeSignature> result = null;
+		final ClassSignature signature = this.getClassSignature(name);
+		if (!CheckUtil.isNull(signature) && visited.add(name)) {
+			final List<TypeSignature> supertypes = new ArrayList<TypeSignature>(signature.getInterfaces());
+			if (!CheckUtil.isNull(signature.getSuperclass())) {
+				supertypes.add(0, signature.getSuperclass());
+			}
+			// Test the direct supertypes first.
+			for (final TypeSignature supertype : supertypes) {
+				if (CheckUtil.isNull(result) && targetName.equals(supertype.getName())) {
+					result = new LinkedList<TypeSignature>();
+					result.add(supertype);
+				}
+			}
+			for (final TypeSignature supertype : supertypes) {
+				if (CheckUtil.isNull(result)) {
+					final List<TypeSignature> suffix = this.findSupertypePath(supertype.getName(), targetName, visited);
+					if (!CheckUtil.isNull(suffix)) {
+						result = suffix;
+						result.add(0, supertype);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Opens a class file.
+	 * 
+	 * @param path
+	 *            The class file path.
+	 * @return The contents, or null if not found.
+	 * @throws IOException
+	 *             Thrown if the class file could not be opened.
+	 */
+	private InputStream open(final String path) throws IOException {
+		InputStream result = null;
+		for (final File directory : this.directories) {
+			final File file = new File(directory, path);
+			if (CheckUtil.isNull(result) && file.isFile()) {
+				result = new FileInputStream(file);
+			}
+		}
+		for (final ZipFile jar : this.jars) {
+			final ZipEntry entry = jar.getEntry(path);
+			if (CheckUtil.isNull(result) && !CheckUtil.isNull(entry)) {
+				result = jar.getInputStream(entry);
+			}
+		}
+		if (CheckUtil.isNull(result) && !CheckUtil.isNull(this.resources)) {
+			result = this.resources.getResourceAsStream(path);
+		}
+		return result;
+	}
+}
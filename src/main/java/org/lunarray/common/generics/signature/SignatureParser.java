@@ -0,0 +1,231 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses class signatures as found in the {@code Signature} attribute. A
+ * parser is used for a single signature.
+ * 
+ * @author agent (agent@local)
+ */
+final class SignatureParser {
+
+	/** The position. */
+	private transient int position;
+	/** The signature. */
+	private final transient String signature;
+
+	/**
+	 * Constructs the parser.
+	 * 
+	 * @param signature
+	 *            The signature.
+	 */
+	SignatureParser(final String signature) {
+		this.signature = signature;
+	}
+
+	/**
+	 * Parses a class signature.
+	 * 
+	 * @param name
+	 *            The internal name of the class.
+	 * @return The class signature.
+	 */
+	ClassSignature parseClassSignature(final String name) {
+		final List<String> typeParameters = new ArrayList<String>();
+		if (this.peek() == '<') {
+			this.expect('<');
+			while (this.peek() != '>') {
+				typeParameters.add(this.parseTypeParameter());
+			}
+			this.expect('>');
+		}
+		final TypeSignature superclass = this.parseReferenceType();
+		final List<TypeSignature> interfaces = new ArrayList<TypeSignature>();
+		while (this.position < this.signature.length()) {
+			interfaces.add(this.parseReferenceType());
+		}
+		return new ClassSignature(name, typeParameters, superclass, interfaces);
+	}
+
+	/**
+	 * Consumes an expected character.
+	 * 
+	 * @param expected
+	 *            The expected character.
+	 */
+	private void expect(final char expected) {
+		if (this.next() != expected) {
+			throw new IllegalArgumentException("Expected '" + expected + "' at " + (this.position - 1) + " in " + this.signature);
+		}
+	}
+
+	/**
+	 * Consumes the next character.
+	 * 
+	 * @return The character.
+	 */
+	private char next() {
+		final char result = this.peek();
+		this.position = this.position + 1;
+		return result;
+	}
+
+	/**
+	 * Parses a class type signature. Inner classes are flattened into their
+	 * binary name, keeping the arguments of the innermost class.
+	 * 
+	 * @return The type.
+	 */
+	private TypeSignature parseClassType() {
+		this.expect('L');
+		final StringBuilder name = new StringBuilder();
+		List<TypeSignature> arguments = Collections.emptyList();
+		boolean done = false;
+		while (!done) {
+			final char current = this.next();
+			if (current == ';') {
+				done = true;
+			} else if (current == '<') {
+				arguments = new ArrayList<TypeSignature>();
+				while (this.peek() != '>') {
+					arguments.add(this.parseTypeArgument());
+				}
+				this.expect('>');
+			} else if (current == '.') {
+				name.append('$');
+				arguments = Collections.emptyList();
+			} else {
+				name.append(current);
+			}
+		}
+		return new TypeSignature(TypeSignature.Kind.CLASS, name.toString(), arguments, null);
+	}
+
+	/**
+	 * Parses a reference type signature.
+	 * 
+	 * @return The type.
+	 */
+	private TypeSignature parseReferenceType() {
+		final char current = this.peek();
+		TypeSignature result;
+		if (current == 'L') {
+			result = this.parseClassType();
+		} else if (current == 'T') {
+			this.expect('T');
+			result = new TypeSignature(TypeSignature.Kind.VARIABLE, this.readUntil(';'), Collections.<TypeSignature> emptyList(), null);
+		} else if (current == '[') {
+			this.expect('[');
+			result = new TypeSignature(TypeSignature.Kind.ARRAY, null, Collections.<TypeSignature> emptyList(), this.parseType());
+		} else {
+			throw new IllegalArgumentException("Not a reference type at " + this.position + " in " + this.signature);
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a type signature, including primitive types.
+	 * 
+	 * @return The type.
+	 */
+	private TypeSignature parseType() {
+		final char current = this.peek();
+		TypeSignature result;
+		if ("BCDFIJSZV".indexOf(current) >= 0) {
+			this.next();
+			result = new TypeSignature(TypeSignature.Kind.BASE, String.valueOf(current), Collections.<TypeSignature> emptyList(), null);
+		} else {
+			result = this.parseReferenceType();
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a type argument.
+	 * 
+	 * @return The type argument.
+	 */
+	private TypeSignature parseTypeArgument() {
+		final char current = this.peek();
+		TypeSignature result;
+		if (current == '*') {
+			this.next();
+			result = TypeSignature.UNBOUNDED;
+		} else if ((current == '+') || (current == '-')) {
+			this.next();
+			result = new TypeSignature(TypeSignature.Kind.WILDCARD, String.valueOf(current), Collections.singletonList(this.parseReferenceType()),
+					null);
+		} else {
+			result = this.parseReferenceType();
+		}
+		return result;
+	}
+
+	/**
+	 * Parses a type parameter, skipping its bounds.
+	 * 
+	 * @return The type parameter name.
+	 */
+	private String parseTypeParameter() {
+		final String name = this.readUntil(':');
+		// The class bound may be empty, interface bounds each start with ':'.
+		if (this.peek() != ':') {
+			this.parseReferenceType();
+		}
+		while (this.peek() == ':') {
+			this.expect(':');
+			this.parseReferenceType();
+		}
+		return name;
+	}
+
+	/**
+	 * Gets the next character without consuming it.
+	 * 
+	 * @return The character.
+	 */
+	private char peek() {
+		if (this.position >= this.signature.length()) {
+			throw new IllegalArgumentException("Unexpected end of " + this.signature);
+		}
+		return this.signature.charAt(this.position);
+	}
+
+	/**
+	 * Reads up to and consumes the terminator.
+	 * 
+	 * @param terminator
+	 *            The terminator.
+	 * @return The characters read.
+	 */
+	private String readUntil(final char terminator) {
+		final int end = this.signature.indexOf(terminator, this.position);
+		if (end < 0) {
+			throw new IllegalArgumentException("Expected '" + terminator + "' in " + this.signature);
+		}
+		final String result = this.signature.substring(this.position, end);
+		this.position = end + 1;
+		return result;
+	}
+}
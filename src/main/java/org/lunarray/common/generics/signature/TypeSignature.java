@@ -0,0 +1,170 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * A type as read from a class file signature. Class names are internal names,
+ * such as {@code java/util/List}, and the string form is the signature form.
+ * 
+ * @author agent (agent@local)
+ */
+public final class TypeSignature {
+
+	/** The unbounded wildcard. */
+	public static final TypeSignature UNBOUNDED = new TypeSignature(Kind.WILDCARD, "*", Collections.<TypeSignature> emptyList(), null);
+
+	/** The type arguments or the wildcard bound. */
+	private final transient List<TypeSignature> arguments;
+	/** The array component type. */
+	private final transient TypeSignature component;
+	/** The kind. */
+	private final transient Kind kind;
+	/** The name, base type descriptor or wildcard indicator. */
+	private final transient String name;
+
+	/**
+	 * Constructs the signature.
+	 * 
+	 * @param kind
+	 *            The kind.
+	 * @param name
+	 *            The name, base type descriptor or wildcard indicator.
+	 * @param arguments
+	 *            The type arguments or the wildcard bound.
+	 * @param component
+	 *            The array component type, may be null.
+	 */
+	TypeSignature(final Kind kind, final String name, final List<TypeSignature> arguments, final TypeSignature component) {
+		this.kind = kind;
+		this.name = name;
+		this.arguments = Collections.unmodifiableList(arguments);
+		this.component = component;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public boolean equals(final Object obj) {
+		return (obj instanceof TypeSignature) && this.toString().equals(obj.toString());
+	}
+
+	/**
+	 * Gets the value for the arguments field. For wildcards this holds the
+	 * bound.
+	 * 
+	 * @return The value for the arguments field.
+	 */
+	public List<TypeSignature> getArguments() {
+		return this.arguments;
+	}
+
+	/**
+	 * Gets the value for the component field.
+	 * 
+	 * @return The value for the component field, null if not an array.
+	 */
+	public TypeSignature getComponent() {
+		return this.component;
+	}
+
+	/**
+	 * Gets the value for the kind field.
+	 * 
+	 * @return The value for the kind field.
+	 */
+	public Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * Gets the value for the name field.
+	 * 
+	 * @return The value for the name field.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return this.toString().hashCode();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder();
+		this.append(builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the signature form.
+	 * 
+	 * @param builder
+	 *            The builder.
+	 */
+	private void append(final StringBuilder builder) {
+		if (Kind.CLASS == this.kind) {
+			builder.append('L').append(this.name);
+			if (!this.arguments.isEmpty()) {
+				builder.append('<');
+				for (final TypeSignature argument : this.arguments) {
+					argument.append(builder);
+				}
+				builder.append('>');
+			}
+			builder.append(';');
+		} else if (Kind.VARIABLE == this.kind) {
+			builder.append('T').append(this.name).append(';');
+		} else if (Kind.ARRAY == this.kind) {
+			builder.append('[');
+			this.component.append(builder);
+		} else if (Kind.WILDCARD == this.kind) {
+			builder.append(this.name);
+			for (final TypeSignature bound : this.arguments) {
+				bound.append(builder);
+			}
+		} else if (!CheckUtil.isNull(this.name)) {
+			builder.append(this.name);
+		}
+	}
+
+	/**
+	 * The kind of type.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	public enum Kind {
+		/** An array type. */
+		ARRAY,
+		/** A primitive type. */
+		BASE,
+		/** A class or interface type. */
+		CLASS,
+		/** A type variable. */
+		VARIABLE,
+		/** A wildcard type argument. */
+		WILDCARD;
+	}
+}
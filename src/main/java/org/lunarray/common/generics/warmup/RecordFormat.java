@@ -0,0 +1,169 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.Member;
+import org.lunarray.common.generics.impl.MemberField;
+import org.lunarray.common.generics.impl.MemberMethod;
+
+/**
+ * The record file format. Every line is a record, its fields separated by
+ * tabs. Entity type records are {@code E clazz index target}, property
+ * records are {@code P target index members} and real type records are
+ * {@code R members}. Members are separated by vertical bars, which unlike
+ * semicolons do not occur in binary names of array types, and are either
+ * {@code F<class>#<field>} or {@code M<class>#<method>(<params>)<index>}.
+ * 
+ * @author agent (agent@local)
+ */
+enum RecordFormat {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** The entity type record kind. */
+	static final String ENTITY = "E";
+	/** The field separator. */
+	static final char FIELD_SEPARATOR = '\t';
+	/** The member separator. */
+	static final char MEMBER_SEPARATOR = '|';
+	/** The property record kind. */
+	static final String PROPERTY = "P";
+	/** The real type record kind. */
+	static final String REAL = "R";
+	/** The field member kind. */
+	private static final char FIELD = 'F';
+	/** The method member kind. */
+	private static final char METHOD = 'M';
+	/** The name separator. */
+	private static final char NAME_SEPARATOR = '#';
+	/** The parameter separator. */
+	private static final char PARAMETER_SEPARATOR = ',';
+	/** The parameters end. */
+	private static final char PARAMETERS_END = ')';
+	/** The parameters start. */
+	private static final char PARAMETERS_START = '(';
+	/** The primitive types. */
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+
+	static {
+		for (final Class<?> primitive : new Class<?>[] { boolean.class, byte.class, char.class, double.class, float.class, int.class,
+				long.class, short.class, void.class }) {
+			RecordFormat.PRIMITIVES.put(primitive.getName(), primitive);
+		}
+	}
+
+	/**
+	 * Decodes a member.
+	 * 
+	 * @param encoded
+	 *            The encoded member.
+	 * @param loader
+	 *            The class loader to load from.
+	 * @return The member.
+	 * @throws ReflectiveOperationException
+	 *             Thrown if the member could not be found.
+	 */
+	static Member decode(final String encoded, final ClassLoader loader) throws ReflectiveOperationException {
+		final int nameIndex = encoded.indexOf(RecordFormat.NAME_SEPARATOR);
+		if (encoded.isEmpty() || (nameIndex < 0)) {
+			throw new NoSuchFieldException(encoded);
+		}
+		final Class<?> declaring = RecordFormat.load(encoded.substring(1, nameIndex), loader);
+		Member result;
+		if (encoded.charAt(0) == RecordFormat.FIELD) {
+			result = new MemberField(declaring.getDeclaredField(encoded.substring(nameIndex + 1)));
+		} else if (encoded.charAt(0) == RecordFormat.METHOD) {
+			final int start = encoded.indexOf(RecordFormat.PARAMETERS_START, nameIndex);
+			final int end = encoded.indexOf(RecordFormat.PARAMETERS_END, start);
+			if ((start < 0) || (end < 0)) {
+				throw new NoSuchMethodException(encoded);
+			}
+			final String parameterNames = encoded.substring(start + 1, end);
+			Class<?>[] parameterTypes = new Class<?>[0];
+			if (!parameterNames.isEmpty()) {
+				final String[] names = parameterNames.split(String.valueOf(RecordFormat.PARAMETER_SEPARATOR));
+				parameterTypes = new Class<?>[names.length];
+				for (int i = 0; i < names.length; i = i + 1) {
+					parameterTypes[i] = RecordFormat.load(names[i], loader);
+				}
+			}
+			final Method method = declaring.getDeclaredMethod(encoded.substring(nameIndex + 1, start), parameterTypes);
+			result = new MemberMethod(method, Integer.parseInt(encoded.substring(end + 1)));
+		} else {
+			throw new NoSuchFieldException(encoded);
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes a member.
+	 * 
+	 * @param member
+	 *            The member.
+	 * @return The encoded member, or null if it cannot be encoded.
+	 */
+	static String encode(final Member member) {
+		String result = null;
+		if (member instanceof MemberField) {
+			final Field field = ((MemberField) member).getField();
+			result = RecordFormat.FIELD + field.getDeclaringClass().getName() + RecordFormat.NAME_SEPARATOR + field.getName();
+		} else if (member instanceof MemberMethod) {
+			final MemberMethod memberMethod = (MemberMethod) member;
+			final Method method = memberMethod.getMethod();
+			final StringBuilder builder = new StringBuilder();
+			builder.append(RecordFormat.METHOD).append(method.getDeclaringClass().getName());
+			builder.append(RecordFormat.NAME_SEPARATOR).append(method.getName()).append(RecordFormat.PARAMETERS_START);
+			final Class<?>[] parameterTypes = method.getParameterTypes();
+			for (int i = 0; i < parameterTypes.length; i = i + 1) {
+				if (i > 0) {
+					builder.append(RecordFormat.PARAMETER_SEPARATOR);
+				}
+				builder.append(parameterTypes[i].getName());
+			}
+			builder.append(RecordFormat.PARAMETERS_END).append(memberMethod.getParam());
+			result = builder.toString();
+		}
+		return result;
+	}
+
+	/**
+	 * Loads a class without initializing it.
+	 * 
+	 * @param name
+	 *            The class name.
+	 * @param loader
+	 *            The class loader.
+	 * @return The class.
+	 * @throws ClassNotFoundException
+	 *             Thrown if the class could not be found.
+	 */
+	static Class<?> load(final String name, final ClassLoader loader) throws ClassNotFoundException {
+		Class<?> result = RecordFormat.PRIMITIVES.get(name);
+		if (CheckUtil.isNull(result)) {
+			result = Class.forName(name, false, loader);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,331 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.Member;
+import org.lunarray.common.generics.cache.EntityTypeKey;
+
+/**
+ * Records the distinct inputs of resolutions, so they may be replayed with
+ * {@link ResolutionReplay} on a next start. Only fields and methods from
+ * {@link org.lunarray.common.generics.impl} are recorded in member chains.
+ * 
+ * @author agent (agent@local)
+ */
+public final class ResolutionRecorder {
+
+	/** The default capacity. */
+	public static final int DEFAULT_CAPACITY = 65536;
+
+	/** The maximum amount of records. */
+	private final transient int capacity;
+	/** The records. */
+	private final transient ConcurrentMap<Object, Boolean> records;
+
+	/**
+	 * Constructs a recorder with the default capacity.
+	 */
+	public ResolutionRecorder() {
+		this(ResolutionRecorder.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a recorder.
+	 * 
+	 * @param capacity
+	 *            The maximum amount of records.
+	 */
+	public ResolutionRecorder(final int capacity) {
+		if (!CheckUtil.checkPositive(capacity)) {
+			throw new IllegalArgumentException("Capacity may not be negative.");
+		}
+		this.capacity = capacity;
+		this.records = new ConcurrentHashMap<Object, Boolean>();
+	}
+
+	/**
+	 * Records an entity type resolution.
+	 * 
+	 * @param clazz
+	 *            The entity type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param targetClazz
+	 *            The target type.
+	 */
+	public void recordEntityType(final Class<?> clazz, final int genericParameter, final Class<?> targetClazz) {
+		this.record(new EntityTypeKey(clazz, genericParameter, targetClazz));
+	}
+
+	/**
+	 * Records a property type resolution.
+	 * 
+	 * @param clazz
+	 *            The target type.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param members
+	 *            The member chain, copied only if it is recorded.
+	 */
+	public void recordPropertyGenericType(final Class<?> clazz, final int genericParameter, final List<? extends Member> members) {
+		this.recordChain(RecordFormat.PROPERTY, clazz, genericParameter, members);
+	}
+
+	/**
+	 * Records a real type resolution.
+	 * 
+	 * @param members
+	 *            The member chain, copied only if it is recorded.
+	 */
+	public void recordRealType(final List<? extends Member> members) {
+		this.recordChain(RecordFormat.REAL, null, -1, members);
+	}
+
+	/**
+	 * Gets the amount of records.
+	 * 
+	 * @return The amount of records.
+	 */
+	public int size() {
+		return this.records.size();
+	}
+
+	/**
+	 * Writes the records to a file, replacing it.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @throws IOException
+	 *             Thrown if the file could not be written.
+	 */
+	public void write(final File file) throws IOException {
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+		try {
+			this.write(writer);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the records, a line per record.
+	 * 
+	 * @param writer
+	 *            The writer.
+	 * @throws IOException
+	 *             Thrown if the records could not be written.
+	 */
+	public void write(final Writer writer) throws IOException {
+		for (final Object recorded : this.records.keySet()) {
+			final String line = ResolutionRecorder.encode(recorded);
+			if (!CheckUtil.isNull(line)) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Encodes a record.
+	 * 
+	 * @param recorded
+	 *            The record.
+	 * @return The line, or null if it cannot be encoded.
+	 */
+	private static String encode(final Object recorded) {
+		final StringBuilder builder = new StringBuilder();
+		boolean encoded = true;
+		if (recorded instanceof EntityTypeKey) {
+			final EntityTypeKey key = (EntityTypeKey) recorded;
+			builder.append(RecordFormat.ENTITY).append(RecordFormat.FIELD_SEPARATOR).append(key.getClazz().getName());
+			builder.append(RecordFormat.FIELD_SEPARATOR).append(key.getGenericParameter());
+			builder.append(RecordFormat.FIELD_SEPARATOR).append(key.getTargetClazz().getName());
+		} else {
+			final ChainRecord chain = (ChainRecord) recorded;
+			builder.append(chain.getKind());
+			if (RecordFormat.PROPERTY.equals(chain.getKind())) {
+				builder.append(RecordFormat.FIELD_SEPARATOR).append(chain.getClazz().getName());
+				builder.append(RecordFormat.FIELD_SEPARATOR).append(chain.getGenericParameter());
+			}
+			builder.append(RecordFormat.FIELD_SEPARATOR);
+			final List<? extends Member> members = chain.getMembers();
+			for (int i = 0; encoded && (i < members.size()); i = i + 1) {
+				final String member = RecordFormat.encode(members.get(i));
+				if (CheckUtil.isNull(member)) {
+					encoded = false;
+				} else {
+					if (i > 0) {
+						builder.append(RecordFormat.MEMBER_SEPARATOR);
+					}
+					builder.append(member);
+				}
+			}
+		}
+		String result = null;
+		if (encoded) {
+			result = builder.toString();
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a record if there is capacity left.
+	 * 
+	 * @param recorded
+	 *            The record.
+	 */
+	private void record(final Object recorded) {
+		if (!this.records.containsKey(recorded) && (this.records.size() < this.capacity)) {
+			this.records.putIfAbsent(recorded, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Adds a member chain record if it is new and there is capacity left. The
+	 * chain is looked up through the given list and only copied when added.
+	 * 
+	 * @param kind
+	 *            The record kind.
+	 * @param clazz
+	 *            The target type, may be null.
+	 * @param genericParameter
+	 *            The generic parameter.
+	 * @param members
+	 *            The member chain.
+	 */
+	private void recordChain(final String kind, final Class<?> clazz, final int genericParameter, final List<? extends Member> members) {
+		if ((this.records.size() < this.capacity) && !this.records.containsKey(new ChainRecord(kind, clazz, genericParameter, members))) {
+			final List<Member> copy = Arrays.asList(members.toArray(new Member[members.size()]));
+			this.records.putIfAbsent(new ChainRecord(kind, clazz, genericParameter, copy), Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * A recorded member chain resolution.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class ChainRecord {
+		/** Hash prime. */
+		private static final int PRIME = 31;
+
+		/** The target type. */
+		private final transient Class<?> clazz;
+		/** The generic parameter. */
+		private final transient int genericParameter;
+		/** The hash code. */
+		private final transient int hash;
+		/** The record kind. */
+		private final transient String kind;
+		/** The members. */
+		private final transient List<? extends Member> members;
+
+		/**
+		 * Constructs the record.
+		 * 
+		 * @param kind
+		 *            The record kind.
+		 * @param clazz
+		 *            The target type, may be null.
+		 * @param genericParameter
+		 *            The generic parameter.
+		 * @param members
+		 *            The members, not copied.
+		 */
+		public ChainRecord(final String kind, final Class<?> clazz, final int genericParameter, final List<? extends Member> members) {
+			this.kind = kind;
+			this.clazz = clazz;
+			this.genericParameter = genericParameter;
+			this.members = members;
+			int result = kind.hashCode();
+			result = (ChainRecord.PRIME * result) + System.identityHashCode(clazz);
+			result = (ChainRecord.PRIME * result) + genericParameter;
+			this.hash = (ChainRecord.PRIME * result) + members.hashCode();
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public boolean equals(final Object obj) {
+			boolean result = false;
+			if (this == obj) {
+				result = true;
+			} else if (obj instanceof ChainRecord) {
+				final ChainRecord other = (ChainRecord) obj;
+				result = this.kind.equals(other.kind) && (this.clazz == other.clazz) && (this.genericParameter == other.genericParameter)
+						&& this.members.equals(other.members);
+			}
+			return result;
+		}
+
+		/**
+		 * Gets the value for the clazz field.
+		 * 
+		 * @return The value for the clazz field.
+		 */
+		public Class<?> getClazz() {
+			return this.clazz;
+		}
+
+		/**
+		 * Gets the value for the generic parameter field.
+		 * 
+		 * @return The value for the generic parameter field.
+		 */
+		public int getGenericParameter() {
+			return this.genericParameter;
+		}
+
+		/**
+		 * Gets the value for the kind field.
+		 * 
+		 * @return The value for the kind field.
+		 */
+		public String getKind() {
+			return this.kind;
+		}
+
+		/**
+		 * Gets the value for the members field.
+		 * 
+		 * @return The value for the members field.
+		 */
+		public List<? extends Member> getMembers() {
+			return this.members;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+}
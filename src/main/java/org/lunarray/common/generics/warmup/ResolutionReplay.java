@@ -0,0 +1,241 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.warmup;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.lunarray.common.check.CheckUtil;
+import org.lunarray.common.generics.GenericsResolver;
+import org.lunarray.common.generics.Member;
+
+/**
+ * Replays resolutions recorded by {@link ResolutionRecorder}, for instance to
+ * warm a resolver before a service reports ready. Records that no longer
+ * match the class path are skipped.
+ * 
+ * @author agent (agent@local)
+ */
+public enum ResolutionReplay {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** The amount of fields of an entity type record. */
+	private static final int ENTITY_FIELDS = 4;
+	/** The amount of fields of a property record. */
+	private static final int PROPERTY_FIELDS = 4;
+	/** The amount of fields of a real type record. */
+	private static final int REAL_FIELDS = 2;
+
+	/**
+	 * Replays the records of a file and waits for them to complete.
+	 * 
+	 * @param resolver
+	 *            The resolver to warm.
+	 * @param file
+	 *            The record file.
+	 * @param loader
+	 *            The class loader to load the recorded classes from.
+	 * @param executor
+	 *            The executor to replay with.
+	 * @return The amount of replayed records.
+	 * @throws IOException
+	 *             Thrown if the file could not be read.
+	 * @throws InterruptedException
+	 *             Thrown if interrupted while waiting.
+	 */
+	public static int replay(final GenericsResolver resolver, final File file, final ClassLoader loader, final ExecutorService executor)
+			throws IOException, InterruptedException {
+		final Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+		try {
+			return ResolutionReplay.replay(resolver, reader, loader, executor);
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Replays the records and waits for them to complete.
+	 * 
+	 * @param resolver
+	 *            The resolver to warm.
+	 * @param reader
+	 *            The records, a line per record.
+	 * @param loader
+	 *            The class loader to load the recorded classes from.
+	 * @param executor
+	 *            The executor to replay with.
+	 * @return The amount of replayed records.
+	 * @throws IOException
+	 *             Thrown if the records could not be read.
+	 * @throws InterruptedException
+	 *             Thrown if interrupted while waiting.
+	 */
+	public static int replay(final GenericsResolver resolver, final Reader reader, final ClassLoader loader, final ExecutorService executor)
+			throws IOException, InterruptedException {
+		final List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		final BufferedReader lines = new BufferedReader(reader);
+		String line = lines.readLine();
+		while (!CheckUtil.isNull(line)) {
+			if (!line.isEmpty()) {
+				tasks.add(new ReplayTask(resolver, line, loader));
+			}
+			line = lines.readLine();
+		}
+		int replayed = 0;
+		for (final Future<Boolean> future : executor.invokeAll(tasks)) {
+			if (ResolutionReplay.isReplayed(future)) {
+				replayed = replayed + 1;
+			}
+		}
+		return replayed;
+	}
+
+	/**
+	 * Decodes a member chain.
+	 * 
+	 * @param encoded
+	 *            The encoded chain.
+	 * @param loader
+	 *            The class loader.
+	 * @return The members.
+	 * @throws ReflectiveOperationException
+	 *             Thrown if a member could not be found.
+	 */
+	private static List<Member> decodeMembers(final String encoded, final ClassLoader loader) throws ReflectiveOperationException {
+		final List<Member> members = new ArrayList<Member>();
+		for (final String member : encoded.split(Pattern.quote(String.valueOf(RecordFormat.MEMBER_SEPARATOR)))) {
+			members.add(RecordFormat.decode(member, loader));
+		}
+		return members;
+	}
+
+	/**
+	 * Tests if a replay task succeeded.
+	 * 
+	 * @param future
+	 *            The completed task.
+	 * @return True if and only if the record was replayed.
+	 * @throws InterruptedException
+	 *             Thrown if interrupted while waiting.
+	 */
+	private static boolean isReplayed(final Future<Boolean> future) throws InterruptedException {
+		boolean replayed;
+		try {
+			replayed = future.get().booleanValue();
+		} catch (final ExecutionException e) {
+			replayed = false;
+		}
+		return replayed;
+	}
+
+	/**
+	 * Replays a single record.
+	 * 
+	 * @param resolver
+	 *            The resolver.
+	 * @param line
+	 *            The record.
+	 * @param loader
+	 *            The class loader.
+	 * @return True if and only if the record was replayed.
+	 * @throws ReflectiveOperationException
+	 *             Thrown if a recorded class or member could not be found.
+	 */
+	private static boolean replay(final GenericsResolver resolver, final String line, final ClassLoader loader)
+			throws ReflectiveOperationException {
+		final String[] fields = line.split(String.valueOf(RecordFormat.FIELD_SEPARATOR));
+		boolean replayed = true;
+		if (RecordFormat.ENTITY.equals(fields[0]) && (fields.length == ResolutionReplay.ENTITY_FIELDS)) {
+			resolver.getEntityGenericType(RecordFormat.load(fields[1], loader), Integer.parseInt(fields[2]),
+					RecordFormat.load(fields[3], loader));
+		} else if (RecordFormat.PROPERTY.equals(fields[0]) && (fields.length == ResolutionReplay.PROPERTY_FIELDS)) {
+			resolver.getPropertyGenericType(RecordFormat.load(fields[1], loader), Integer.parseInt(fields[2]),
+					ResolutionReplay.decodeMembers(fields[3], loader), 0);
+		} else if (RecordFormat.REAL.equals(fields[0]) && (fields.length == ResolutionReplay.REAL_FIELDS)) {
+			resolver.getRealType(ResolutionReplay.decodeMembers(fields[1], loader), 0);
+		} else {
+			replayed = false;
+		}
+		return replayed;
+	}
+
+	/**
+	 * A task replaying a single record.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	private static final class ReplayTask
+			implements Callable<Boolean> {
+		/** The record. */
+		private final transient String line;
+		/** The class loader. */
+		private final transient ClassLoader loader;
+		/** The resolver. */
+		private final transient GenericsResolver resolver;
+
+		/**
+		 * Constructs the task.
+		 * 
+		 * @param resolver
+		 *            The resolver.
+		 * @param line
+		 *            The record.
+		 * @param loader
+		 *            The class loader.
+		 */
+		public ReplayTask(final GenericsResolver resolver, final String line, final ClassLoader loader) {
+			this.resolver = resolver;
+			this.line = line;
+			this.loader = loader;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public Boolean call() {
+			boolean replayed;
+			try {
+				replayed = ResolutionReplay.replay(this.resolver, this.line, this.loader);
+			} catch (final ReflectiveOperationException e) {
+				// The class path changed since recording.
+				replayed = false;
+			} catch (final LinkageError e) {
+				// A recorded class could not be linked.
+				replayed = false;
+			} catch (final RuntimeException e) {
+				// A malformed record or a failed resolution, warming is best
+				// effort.
+				replayed = false;
+			}
+			return Boolean.valueOf(replayed);
+		}
+	}
+}
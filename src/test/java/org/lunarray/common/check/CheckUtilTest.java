@@ -0,0 +1,135 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.check;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the bounds checks of the {@link CheckUtil}.
+ * 
+ * @author agent (agent@local)
+ */
+public class CheckUtilTest {
+
+	/**
+	 * Test index bounds of arrays and lists.
+	 */
+	@Test
+	public void testBoundsArray() {
+		final String[] array = new String[2];
+		Assert.assertTrue(CheckUtil.checkBounds(0, array));
+		Assert.assertTrue(CheckUtil.checkBounds(1, array));
+		Assert.assertFalse(CheckUtil.checkBounds(2, array));
+		Assert.assertFalse(CheckUtil.checkBounds(-1, array));
+		Assert.assertTrue(CheckUtil.checkBounds(1, new int[2]));
+		Assert.assertFalse(CheckUtil.checkBounds(2, new long[2]));
+		Assert.assertFalse(CheckUtil.checkBounds(-1, new byte[2]));
+		Assert.assertTrue(CheckUtil.checkBounds(1, Arrays.asList(array)));
+		Assert.assertFalse(CheckUtil.checkBounds(2, Arrays.asList(array)));
+		Assert.assertFalse(CheckUtil.checkBounds(Integer.MIN_VALUE, Arrays.asList(array)));
+	}
+
+	/**
+	 * Test index bounds against a buffer limit rather than its capacity.
+	 */
+	@Test
+	public void testBoundsBuffer() {
+		final ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.limit(4);
+		Assert.assertTrue(CheckUtil.checkBounds(3, buffer));
+		Assert.assertFalse(CheckUtil.checkBounds(4, buffer));
+		Assert.assertFalse(CheckUtil.checkBounds(-1, buffer));
+	}
+
+	/**
+	 * Test index bounds of a length.
+	 */
+	@Test
+	public void testBoundsLength() {
+		Assert.assertTrue(CheckUtil.checkBounds(0, 1));
+		Assert.assertFalse(CheckUtil.checkBounds(1, 1));
+		Assert.assertFalse(CheckUtil.checkBounds(0, 0));
+		Assert.assertFalse(CheckUtil.checkBounds(-1, 1));
+		Assert.assertTrue(CheckUtil.checkBounds(Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkBounds(Integer.MAX_VALUE, Integer.MAX_VALUE));
+		Assert.assertTrue(CheckUtil.checkBounds(Long.MAX_VALUE - 1, Long.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkBounds(Long.MAX_VALUE, Long.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkBounds(Long.MIN_VALUE, Long.MAX_VALUE));
+	}
+
+	/**
+	 * Test sub-ranges against a buffer limit rather than its capacity.
+	 */
+	@Test
+	public void testFromIndexSizeBuffer() {
+		final ByteBuffer buffer = ByteBuffer.allocate(8);
+		buffer.limit(4);
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(0, 4, buffer));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(4, 0, buffer));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(1, 4, buffer));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(5, 0, buffer));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(-1, 1, buffer));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(1, Integer.MAX_VALUE, buffer));
+	}
+
+	/**
+	 * Test sub-ranges of an int length.
+	 */
+	@Test
+	public void testFromIndexSizeInt() {
+		// Sub-ranges ending exactly at the length.
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(2, 3, 5));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(5, 0, 5));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(0, 0, 0));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(Integer.MAX_VALUE, 0, Integer.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(2, 4, 5));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(6, 0, 5));
+		// The end of the sub-range overflows.
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(Integer.MAX_VALUE, 1, Integer.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(1, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		// Negative arguments.
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(-1, 1, 5));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(0, -1, 5));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(0, 0, -1));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(Integer.MIN_VALUE, Integer.MIN_VALUE, 5));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(-1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+	}
+
+	/**
+	 * Test sub-ranges of a long length.
+	 */
+	@Test
+	public void testFromIndexSizeLong() {
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(2L, 3L, 5L));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(0L, Long.MAX_VALUE, Long.MAX_VALUE));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize(Long.MAX_VALUE, 0L, Long.MAX_VALUE));
+		Assert.assertTrue(CheckUtil.checkFromIndexSize((long) Integer.MAX_VALUE, 1L, Integer.MAX_VALUE + 1L));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(2L, 4L, 5L));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(Long.MAX_VALUE, 1L, Long.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(1L, Long.MAX_VALUE, Long.MAX_VALUE));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(-1L, 1L, 5L));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(0L, -1L, 5L));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(0L, 0L, -1L));
+		Assert.assertFalse(CheckUtil.checkFromIndexSize(Long.MIN_VALUE, Long.MIN_VALUE, 5L));
+	}
+}
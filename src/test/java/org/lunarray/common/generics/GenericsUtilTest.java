@@ -0,0 +1,111 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.lunarray.common.generics.cache.ResolutionCache;
+import org.lunarray.common.generics.warmup.ResolutionRecorder;
+
+/**
+ * Tests the {@link GenericsUtil} configuration.
+ * 
+ * @author agent (agent@local)
+ */
+public class GenericsUtilTest {
+
+	/** The resolver to restore. */
+	private GenericsResolver previous;
+
+	/**
+	 * Remembers the default resolver.
+	 */
+	@Before
+	public void setUp() {
+		this.previous = GenericsUtil.getResolver();
+	}
+
+	/**
+	 * Restores the default resolver.
+	 */
+	@After
+	public void tearDown() {
+		GenericsUtil.setResolver(this.previous);
+	}
+
+	/**
+	 * Test an entity type resolver follows the default resolver.
+	 */
+	@Test
+	public void testEntityTypeResolverFollowsDefault() {
+		final EntityTypeResolver resolver = GenericsUtil.createEntityTypeResolver(Comparable.class, 0);
+		final ResolutionCache cache = new ResolutionCache();
+		GenericsUtil.setResolver(new GenericsResolver(cache));
+		Assert.assertSame(String.class, resolver.resolve(String.class));
+		Assert.assertEquals(1, cache.getSharedSize());
+	}
+
+	/**
+	 * Test an entity type resolver drops results its cache invalidated.
+	 */
+	@Test
+	public void testEntityTypeResolverInvalidated() {
+		final ResolutionCache cache = new ResolutionCache();
+		final EntityTypeResolver resolver = new GenericsResolver(cache).createEntityTypeResolver(Comparable.class, 0);
+		Assert.assertSame(String.class, resolver.resolve(String.class));
+		Assert.assertEquals(1, cache.invalidate(String.class));
+		Assert.assertSame(String.class, resolver.resolve(String.class));
+		Assert.assertEquals(1, cache.getSharedSize());
+	}
+
+	/**
+	 * Test setting a cache closes the replaced resolver.
+	 */
+	@Test
+	public void testSetResolutionCacheClosesPrevious() {
+		final ResolutionCache cache = new ResolutionCache();
+		GenericsUtil.setResolver(new GenericsResolver(cache));
+		GenericsUtil.getEntityGenericType(String.class, 0, Comparable.class);
+		Assert.assertEquals(1, cache.getSharedSize());
+		GenericsUtil.setResolutionCache(new ResolutionCache());
+		Assert.assertEquals(0, cache.getSharedSize());
+	}
+
+	/**
+	 * Test setting a cache keeps the recorder.
+	 */
+	@Test
+	public void testSetResolutionCacheKeepsRecorder() {
+		final ResolutionRecorder recorder = new ResolutionRecorder();
+		GenericsUtil.setResolver(new GenericsResolver(null, recorder));
+		final ResolutionCache cache = new ResolutionCache();
+		GenericsUtil.setResolutionCache(cache);
+		Assert.assertSame(cache, GenericsUtil.getResolutionCache());
+		Assert.assertSame(recorder, GenericsUtil.getResolver().getResolutionRecorder());
+	}
+
+	/**
+	 * Test a null resolver is rejected.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetResolverNull() {
+		GenericsUtil.setResolver(null);
+	}
+}
@@ -0,0 +1,256 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ResolutionCache}.
+ * 
+ * @author agent (agent@local)
+ */
+public class ResolutionCacheTest {
+
+	/** No dependencies. */
+	private static final List<Class<?>> NONE = Collections.emptyList();
+
+	/**
+	 * Test a clear drops the local tier.
+	 */
+	@Test
+	public void testClearDropsLocal() {
+		final ResolutionCache cache = new ResolutionCache();
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		cache.clear();
+		Assert.assertNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(0, cache.getLocalHits());
+		Assert.assertEquals(1, cache.getLocalMisses());
+		Assert.assertEquals(1, cache.getSharedMisses());
+	}
+
+	/**
+	 * Test closing drops all entries and keeps the cache usable.
+	 */
+	@Test
+	public void testClose() {
+		final ResolutionCache cache = new ResolutionCache();
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		cache.close();
+		Assert.assertNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(0, cache.getSharedSize());
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		Assert.assertNotNull(cache.lookup(String.class, 0, Comparable.class));
+	}
+
+	/**
+	 * Test a full shared tier keeps accepting entries.
+	 */
+	@Test
+	public void testEviction() {
+		final ResolutionCache cache = new ResolutionCache(0, 4);
+		for (int i = 0; i < 20; i = i + 1) {
+			cache.store(String.class, i, Comparable.class, String.class, ResolutionCacheTest.NONE);
+			Assert.assertTrue(cache.getSharedSize() <= 4);
+		}
+		Assert.assertNotNull(cache.lookup(String.class, 19, Comparable.class));
+		Assert.assertEquals(16, cache.getEvictions());
+	}
+
+	/**
+	 * Test entries hit since the last sweep survive it.
+	 */
+	@Test
+	public void testEvictionSecondChance() {
+		final ResolutionCache cache = new ResolutionCache(0, 4);
+		for (int i = 0; i < 4; i = i + 1) {
+			cache.store(String.class, i, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		}
+		for (int i = 0; i < 4; i = i + 1) {
+			if (i != 2) {
+				Assert.assertNotNull(cache.lookup(String.class, i, Comparable.class));
+			}
+		}
+		cache.store(String.class, 4, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		Assert.assertNull(cache.lookup(String.class, 2, Comparable.class));
+		for (int i = 0; i < 5; i = i + 1) {
+			if (i != 2) {
+				Assert.assertNotNull(cache.lookup(String.class, i, Comparable.class));
+			}
+		}
+	}
+
+	/**
+	 * Test invalidating a dependency drops the local tier.
+	 */
+	@Test
+	public void testInvalidateDropsLocal() {
+		final ResolutionCache cache = new ResolutionCache();
+		final List<Class<?>> dependencies = Collections.<Class<?>> singletonList(Number.class);
+		cache.store(Integer.class, 0, Comparable.class, Integer.class, dependencies);
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		Assert.assertEquals(1, cache.invalidate(Number.class));
+		Assert.assertNull(cache.lookup(Integer.class, 0, Comparable.class));
+		// Unaffected entries are refetched from the shared tier.
+		Assert.assertNotNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(1, cache.getSharedHits());
+		Assert.assertNotNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(1, cache.getLocalHits());
+	}
+
+	/**
+	 * Test hits in the local tier.
+	 */
+	@Test
+	public void testLocalHit() {
+		final ResolutionCache cache = new ResolutionCache();
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		final CachedEntityType entry = cache.lookup(String.class, 0, Comparable.class);
+		Assert.assertSame(String.class, entry.getType());
+		Assert.assertEquals(1, cache.getLocalHits());
+		Assert.assertEquals(0, cache.getLocalMisses());
+		Assert.assertEquals(0, cache.getSharedHits());
+		Assert.assertEquals(0, cache.getSharedMisses());
+	}
+
+	/**
+	 * Test an entity entry for any parameter is invalidated, apart from the
+	 * type paths.
+	 */
+	@Test
+	public void testInvalidateNegativeParameter() {
+		final ResolutionCache cache = new ResolutionCache();
+		final List<Class<?>> dependencies = Collections.<Class<?>> singletonList(Number.class);
+		cache.store(Integer.class, -1, Comparable.class, null, dependencies);
+		cache.storePath(Integer.class, Number.class, TypePath.EMPTY.prepend(Integer.class));
+		Assert.assertEquals(1, cache.invalidate(Number.class));
+		Assert.assertEquals(0, cache.getSharedSize());
+		Assert.assertEquals(0, cache.getPathSize());
+	}
+
+	/**
+	 * Test the local counts of all threads are summed.
+	 * 
+	 * @throws InterruptedException
+	 *             Thrown if interrupted.
+	 */
+	@Test
+	public void testLocalCountsSummed() throws InterruptedException {
+		final ResolutionCache cache = new ResolutionCache();
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		final Thread thread = new Thread(new Runnable() {
+			/** {@inheritDoc} */
+			@Override
+			public void run() {
+				cache.lookup(String.class, 0, Comparable.class);
+				cache.lookup(String.class, 0, Comparable.class);
+			}
+		});
+		thread.start();
+		thread.join();
+		cache.lookup(String.class, 0, Comparable.class);
+		Assert.assertEquals(2, cache.getLocalHits());
+		Assert.assertEquals(1, cache.getLocalMisses());
+	}
+
+	/**
+	 * Test misses in both tiers.
+	 */
+	@Test
+	public void testMiss() {
+		final ResolutionCache cache = new ResolutionCache();
+		Assert.assertNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(0, cache.getLocalHits());
+		Assert.assertEquals(1, cache.getLocalMisses());
+		Assert.assertEquals(0, cache.getSharedHits());
+		Assert.assertEquals(1, cache.getSharedMisses());
+	}
+
+	/**
+	 * Test a full path table keeps accepting paths.
+	 */
+	@Test
+	public void testPathEviction() {
+		final ResolutionCache cache = new ResolutionCache(0, 2);
+		cache.storePath(String.class, Comparable.class, TypePath.EMPTY.prepend(String.class));
+		cache.storePath(Integer.class, Comparable.class, TypePath.EMPTY.prepend(Integer.class));
+		cache.storePath(Long.class, Comparable.class, TypePath.EMPTY.prepend(Long.class));
+		Assert.assertEquals(2, cache.getPathSize());
+		Assert.assertNotNull(cache.lookupPath(Long.class, Comparable.class));
+		Assert.assertEquals(1, cache.getEvictions());
+	}
+
+	/**
+	 * Test other threads hit the shared tier.
+	 * 
+	 * @throws InterruptedException
+	 *             Thrown if interrupted.
+	 */
+	@Test
+	public void testSharedHit() throws InterruptedException {
+		final ResolutionCache cache = new ResolutionCache();
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		final CachedEntityType[] result = new CachedEntityType[1];
+		final Thread thread = new Thread(new Runnable() {
+			/** {@inheritDoc} */
+			@Override
+			public void run() {
+				result[0] = cache.lookup(String.class, 0, Comparable.class);
+			}
+		});
+		thread.start();
+		thread.join();
+		Assert.assertNotNull(result[0]);
+		Assert.assertEquals(0, cache.getLocalHits());
+		Assert.assertEquals(1, cache.getLocalMisses());
+		Assert.assertEquals(1, cache.getSharedHits());
+	}
+
+	/**
+	 * Test a resolution started before an invalidation is not stored.
+	 */
+	@Test
+	public void testStoreAfterInvalidation() {
+		final ResolutionCache cache = new ResolutionCache();
+		final List<Class<?>> dependencies = Collections.<Class<?>> singletonList(Number.class);
+		final int generation = cache.getGeneration();
+		cache.invalidate(Number.class);
+		cache.store(Integer.class, 0, Comparable.class, Integer.class, dependencies, generation);
+		cache.storePath(Integer.class, Comparable.class, TypePath.EMPTY.prepend(Integer.class), generation);
+		Assert.assertNull(cache.lookup(Integer.class, 0, Comparable.class));
+		Assert.assertEquals(0, cache.getSharedSize());
+		Assert.assertEquals(0, cache.getPathSize());
+		cache.store(Integer.class, 0, Comparable.class, Integer.class, dependencies, cache.getGeneration());
+		Assert.assertNotNull(cache.lookup(Integer.class, 0, Comparable.class));
+	}
+
+	/**
+	 * Test a cache without a local tier.
+	 */
+	@Test
+	public void testWithoutLocal() {
+		final ResolutionCache cache = new ResolutionCache(0, ResolutionCache.DEFAULT_SHARED_CAPACITY);
+		cache.store(String.class, 0, Comparable.class, String.class, ResolutionCacheTest.NONE);
+		Assert.assertNotNull(cache.lookup(String.class, 0, Comparable.class));
+		Assert.assertEquals(0, cache.getLocalMisses());
+		Assert.assertEquals(1, cache.getSharedHits());
+	}
+}
@@ -0,0 +1,71 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.cache;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link TypePath}.
+ * 
+ * @author agent (agent@local)
+ */
+public class TypePathTest {
+
+	/**
+	 * Test iterating from last to first.
+	 */
+	@Test
+	public void testDescendingIterator() {
+		final TypePath path = TypePath.EMPTY.prepend(Comparable.class).prepend(Number.class).prepend(Integer.class);
+		final Iterator<Type> iterator = path.descendingIterator();
+		Assert.assertSame(Comparable.class, iterator.next());
+		Assert.assertSame(Number.class, iterator.next());
+		Assert.assertSame(Integer.class, iterator.next());
+		Assert.assertFalse(iterator.hasNext());
+		Assert.assertFalse(TypePath.EMPTY.descendingIterator().hasNext());
+	}
+
+	/**
+	 * Test iterating past the first type.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testDescendingIteratorExhausted() {
+		TypePath.EMPTY.descendingIterator().next();
+	}
+
+	/**
+	 * Test paths share their suffixes.
+	 */
+	@Test
+	public void testSharedSuffix() {
+		final TypePath base = TypePath.EMPTY.prepend(Comparable.class).prepend(Number.class);
+		final TypePath first = base.prepend(Integer.class);
+		final TypePath second = base.prepend(Long.class);
+		Assert.assertSame(base, first.getTail());
+		Assert.assertSame(base, second.getTail());
+		Assert.assertEquals(3, first.size());
+		Assert.assertEquals(new LinkedList<Type>(Arrays.<Type> asList(Integer.class, Number.class, Comparable.class)), first.toDeque());
+	}
+}
@@ -0,0 +1,432 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.lunarray.common.check.CheckUtil;
+
+/**
+ * Generates, compiles and loads synthetic generic class hierarchies. Every
+ * hierarchy has a generic root interface, implemented by a single generic
+ * base class. Every class has a configurable amount of generic subclasses,
+ * up to a configurable depth at which the subclasses bind the type
+ * parameters to concrete types.
+ * 
+ * @author agent (agent@local)
+ */
+public final class HierarchyGenerator {
+
+	/** The concrete types the leaves bind, by parameter index. */
+	private static final Class<?>[] ARGUMENTS = { String.class, Integer.class, Long.class, Double.class, Boolean.class,
+			Character.class };
+	/** The package of the generated classes. */
+	private static final String PACKAGE = "generated";
+
+	/** The amount of type parameters. */
+	private final transient int arity;
+	/** The depth of the leaves below the base class. */
+	private final transient int depth;
+	/** The amount of subclasses of every class. */
+	private final transient int fanOut;
+	/** Every how many classes a class redeclares the root interface, zero for never. */
+	private final transient int interfaceMix;
+	/** Whether the leaves are nested in their superclass. */
+	private final transient boolean nested;
+	/** The amount of unrelated generic interfaces every class implements. */
+	private final transient int sideInterfaces;
+
+	/**
+	 * Constructs the generator.
+	 * 
+	 * @param depth
+	 *            The depth of the leaves below the base class, at least 1.
+	 * @param fanOut
+	 *            The amount of subclasses of every class, at least 1.
+	 * @param arity
+	 *            The amount of type parameters, at least 1.
+	 * @param nested
+	 *            Whether the leaves are declared as static member classes of
+	 *            their superclass.
+	 * @param interfaceMix
+	 *            Every how many classes a class also implements the root
+	 *            interface directly, zero for never.
+	 * @param sideInterfaces
+	 *            The amount of unrelated generic interfaces every class
+	 *            implements.
+	 */
+	public HierarchyGenerator(final int depth, final int fanOut, final int arity, final boolean nested, final int interfaceMix,
+			final int sideInterfaces) {
+		if ((depth < 1) || (fanOut < 1) || (arity < 1) || (interfaceMix < 0) || (sideInterfaces < 0)) {
+			throw new IllegalArgumentException("Invalid hierarchy shape.");
+		}
+		this.depth = depth;
+		this.fanOut = fanOut;
+		this.arity = arity;
+		this.nested = nested;
+		this.interfaceMix = interfaceMix;
+		this.sideInterfaces = sideInterfaces;
+	}
+
+	/**
+	 * Gets the concrete type the leaves bind to a type parameter.
+	 * 
+	 * @param index
+	 *            The type parameter index.
+	 * @return The concrete type.
+	 */
+	public static Class<?> getArgument(final int index) {
+		return HierarchyGenerator.ARGUMENTS[index % HierarchyGenerator.ARGUMENTS.length];
+	}
+
+	/**
+	 * Deletes a file or directory.
+	 * 
+	 * @param file
+	 *            The file.
+	 */
+	public static void delete(final File file) {
+		final File[] children = file.listFiles();
+		if (!CheckUtil.isNull(children)) {
+			for (final File child : children) {
+				HierarchyGenerator.delete(child);
+			}
+		}
+		if (!file.delete() && file.exists()) {
+			file.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Generates, compiles and loads the hierarchy.
+	 * 
+	 * @param directory
+	 *            The directory to write sources and classes to.
+	 * @return The hierarchy.
+	 * @throws IOException
+	 *             Thrown if the hierarchy could not be written or compiled.
+	 */
+	public Hierarchy generate(final File directory) throws IOException {
+		final File sources = new File(directory, "src");
+		final File classes = new File(directory, "classes");
+		final File packageDirectory = new File(sources, HierarchyGenerator.PACKAGE);
+		if (!packageDirectory.mkdirs() || !classes.mkdirs()) {
+			throw new IOException("Could not create " + directory);
+		}
+		final List<File> files = new ArrayList<File>();
+		final List<String> leaves = new ArrayList<String>();
+		files.add(this.write(packageDirectory, "Root", "public interface Root" + this.parameters() + " {\n}\n"));
+		for (int i = 0; i < this.sideInterfaces; i = i + 1) {
+			files.add(this.write(packageDirectory, "Side" + i, "public interface Side" + i + "<S> {\n}\n"));
+		}
+		int classCount = 1 + this.sideInterfaces;
+		List<String> level = Collections.singletonList("C0_0");
+		files.add(this.write(packageDirectory, "C0_0", this.declaration("C0_0", "Root", 0, false) + "}\n"));
+		classCount = classCount + 1;
+		for (int d = 1; d <= this.depth; d = d + 1) {
+			final boolean leaf = d == this.depth;
+			final List<String> next = new ArrayList<String>();
+			int index = 0;
+			for (final String parent : level) {
+				final StringBuilder nestedLeaves = new StringBuilder();
+				for (int f = 0; f < this.fanOut; f = f + 1) {
+					final String name = "C" + d + "_" + index;
+					final String declaration = this.declaration(name, parent, classCount, leaf);
+					classCount = classCount + 1;
+					index = index + 1;
+					if (leaf && this.nested) {
+						nestedLeaves.append(declaration.replace("public class", "public static class")).append("}\n");
+						leaves.add(parent + "$" + name);
+					} else {
+						files.add(this.write(packageDirectory, name, declaration + "}\n"));
+						next.add(name);
+						if (leaf) {
+							leaves.add(name);
+						}
+					}
+				}
+				if (nestedLeaves.length() > 0) {
+					// Reopen the parent to declare its member classes.
+					final File parentFile = new File(packageDirectory, parent + ".java");
+					final String source = new String(Files.readAllBytes(parentFile.toPath()), StandardCharsets.UTF_8);
+					this.write(packageDirectory, parent, source.substring(0, source.lastIndexOf('}')) + nestedLeaves + "}\n");
+				}
+			}
+			level = next;
+		}
+		this.compile(files, classes);
+		final URLClassLoader loader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, this.getClass().getClassLoader());
+		try {
+			final List<Class<?>> leafClasses = new ArrayList<Class<?>>(leaves.size());
+			for (final String leaf : leaves) {
+				leafClasses.add(Class.forName(HierarchyGenerator.PACKAGE + "." + leaf, false, loader));
+			}
+			return new Hierarchy(loader, Class.forName(HierarchyGenerator.PACKAGE + ".Root", false, loader), leafClasses, classCount,
+					this.depth);
+		} catch (final ClassNotFoundException e) {
+			loader.close();
+			throw new IOException("Could not load the hierarchy.", e);
+		}
+	}
+
+	/**
+	 * Tests if the system compiler is available.
+	 * 
+	 * @return True if and only if hierarchies can be generated.
+	 */
+	public static boolean isAvailable() {
+		return !CheckUtil.isNull(ToolProvider.getSystemJavaCompiler());
+	}
+
+	/**
+	 * Compiles the sources.
+	 * 
+	 * @param files
+	 *            The sources.
+	 * @param classes
+	 *            The output directory.
+	 * @throws IOException
+	 *             Thrown if the sources do not compile.
+	 */
+	private void compile(final List<File> files, final File classes) throws IOException {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (CheckUtil.isNull(compiler)) {
+			throw new IOException("No system compiler available.");
+		}
+		final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+		try {
+			final Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+			final List<String> options = Arrays.asList("-d", classes.getPath(), "-nowarn", "-g:none");
+			if (!compiler.getTask(null, fileManager, null, options, null, units).call()) {
+				throw new IOException("Generated hierarchy does not compile.");
+			}
+		} finally {
+			fileManager.close();
+		}
+	}
+
+	/**
+	 * Declares a class, without closing brace.
+	 * 
+	 * @param name
+	 *            The class name.
+	 * @param parent
+	 *            The superclass, or the root interface for the base class.
+	 * @param ordinal
+	 *            The ordinal of the class.
+	 * @param leaf
+	 *            Whether the class binds concrete types.
+	 * @return The declaration.
+	 */
+	private String declaration(final String name, final String parent, final int ordinal, final boolean leaf) {
+		final StringBuilder builder = new StringBuilder();
+		final String arguments;
+		if (leaf) {
+			builder.append("public class ").append(name);
+			arguments = this.arguments();
+		} else {
+			builder.append("public abstract class ").append(name).append(this.parameters());
+			arguments = this.parameters();
+		}
+		final List<String> interfaces = new ArrayList<String>();
+		if ("Root".equals(parent)) {
+			interfaces.add("Root" + arguments);
+		} else {
+			builder.append(" extends ").append(parent).append(arguments);
+			if ((this.interfaceMix > 0) && ((ordinal % this.interfaceMix) == 0)) {
+				interfaces.add("Root" + arguments);
+			}
+		}
+		for (int i = 0; i < this.sideInterfaces; i = i + 1) {
+			interfaces.add("Side" + i + "<" + HierarchyGenerator.getArgument(i).getName() + ">");
+		}
+		if (!interfaces.isEmpty()) {
+			builder.append(" implements ");
+			for (int i = 0; i < interfaces.size(); i = i + 1) {
+				if (i > 0) {
+					builder.append(", ");
+				}
+				builder.append(interfaces.get(i));
+			}
+		}
+		return builder.append(" {\n").toString();
+	}
+
+	/**
+	 * Renders the concrete type arguments.
+	 * 
+	 * @return The arguments.
+	 */
+	private String arguments() {
+		final StringBuilder builder = new StringBuilder("<");
+		for (int i = 0; i < this.arity; i = i + 1) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append(HierarchyGenerator.getArgument(i).getName());
+		}
+		return builder.append('>').toString();
+	}
+
+	/**
+	 * Renders the type parameters.
+	 * 
+	 * @return The parameters.
+	 */
+	private String parameters() {
+		final StringBuilder builder = new StringBuilder("<");
+		for (int i = 0; i < this.arity; i = i + 1) {
+			if (i > 0) {
+				builder.append(", ");
+			}
+			builder.append('T').append(i);
+		}
+		return builder.append('>').toString();
+	}
+
+	/**
+	 * Writes a source file.
+	 * 
+	 * @param packageDirectory
+	 *            The package directory.
+	 * @param name
+	 *            The class name.
+	 * @param body
+	 *            The source without package declaration.
+	 * @return The file.
+	 * @throws IOException
+	 *             Thrown if the file could not be written.
+	 */
+	private File write(final File packageDirectory, final String name, final String body) throws IOException {
+		final File file = new File(packageDirectory, name + ".java");
+		String source = body;
+		if (!source.startsWith("package ")) {
+			source = "package " + HierarchyGenerator.PACKAGE + ";\n\n" + body;
+		}
+		final Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8);
+		try {
+			writer.write(source);
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	/**
+	 * A generated hierarchy.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	public static final class Hierarchy {
+		/** The amount of generated types. */
+		private final transient int classCount;
+		/** The depth of the leaves. */
+		private final transient int depth;
+		/** The leaves. */
+		private final transient List<Class<?>> leaves;
+		/** The loader of the hierarchy. */
+		private final transient URLClassLoader loader;
+		/** The root interface. */
+		private final transient Class<?> root;
+
+		/**
+		 * Constructs the hierarchy.
+		 * 
+		 * @param loader
+		 *            The loader of the hierarchy.
+		 * @param root
+		 *            The root interface.
+		 * @param leaves
+		 *            The leaves.
+		 * @param classCount
+		 *            The amount of generated types.
+		 * @param depth
+		 *            The depth of the leaves.
+		 */
+		public Hierarchy(final URLClassLoader loader, final Class<?> root, final List<Class<?>> leaves, final int classCount,
+				final int depth) {
+			this.loader = loader;
+			this.root = root;
+			this.leaves = leaves;
+			this.classCount = classCount;
+			this.depth = depth;
+		}
+
+		/**
+		 * Closes the loader of the hierarchy.
+		 * 
+		 * @throws IOException
+		 *             Thrown if the loader could not be closed.
+		 */
+		public void close() throws IOException {
+			this.loader.close();
+		}
+
+		/**
+		 * Gets the value for the class count field.
+		 * 
+		 * @return The value for the class count field.
+		 */
+		public int getClassCount() {
+			return this.classCount;
+		}
+
+		/**
+		 * Gets the value for the depth field.
+		 * 
+		 * @return The value for the depth field.
+		 */
+		public int getDepth() {
+			return this.depth;
+		}
+
+		/**
+		 * Gets the value for the leaves field.
+		 * 
+		 * @return The value for the leaves field.
+		 */
+		public List<Class<?>> getLeaves() {
+			return this.leaves;
+		}
+
+		/**
+		 * Gets the value for the root field.
+		 * 
+		 * @return The value for the root field.
+		 */
+		public Class<?> getRoot() {
+			return this.root;
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import org.lunarray.common.generics.GenericsResolver;
+import org.lunarray.common.generics.cache.ResolutionCache;
+import org.lunarray.common.generics.scale.HierarchyGenerator.Hierarchy;
+
+/**
+ * Reports how resolution scales over generated hierarchies. Run with the
+ * depth, the fan-outs and optionally the arity and timed rounds, for instance
+ * {@code 3 8,16,32 2 20}, to report uncached and cached resolution for every
+ * fan-out.
+ * 
+ * @author agent (agent@local)
+ */
+public enum HierarchyScaling {
+
+	/** Instance. */
+	INSTANCE;
+
+	/** The default arity. */
+	private static final int DEFAULT_ARITY = 2;
+	/** The default amount of timed rounds. */
+	private static final int DEFAULT_ROUNDS = 20;
+
+	/**
+	 * Runs the report.
+	 * 
+	 * @param args
+	 *            The depth, the comma separated fan-outs, the arity and the
+	 *            amount of timed rounds.
+	 * @throws IOException
+	 *             Thrown if a hierarchy could not be generated.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Usage: <depth> <fan-out,...> [arity] [rounds]");
+		}
+		final int depth = Integer.parseInt(args[0]);
+		int arity = HierarchyScaling.DEFAULT_ARITY;
+		if (args.length > 2) {
+			arity = Integer.parseInt(args[2]);
+		}
+		int rounds = HierarchyScaling.DEFAULT_ROUNDS;
+		if (args.length > 3) {
+			rounds = Integer.parseInt(args[3]);
+		}
+		final File directory = Files.createTempDirectory("hierarchy").toFile();
+		try {
+			for (final String fanOut : args[1].split(",")) {
+				HierarchyScaling.report(new HierarchyGenerator(depth, Integer.parseInt(fanOut), arity, false, 0, 1), new File(
+						directory, "fanOut" + fanOut), arity, rounds, System.out);
+			}
+		} finally {
+			HierarchyGenerator.delete(directory);
+		}
+	}
+
+	/**
+	 * Reports uncached and cached resolution over a generated hierarchy.
+	 * 
+	 * @param generator
+	 *            The generator.
+	 * @param directory
+	 *            The directory to generate in.
+	 * @param arity
+	 *            The arity of the hierarchy.
+	 * @param rounds
+	 *            The amount of timed rounds.
+	 * @param out
+	 *            The stream to report to.
+	 * @throws IOException
+	 *             Thrown if the hierarchy could not be generated.
+	 */
+	public static void report(final HierarchyGenerator generator, final File directory, final int arity, final int rounds,
+			final PrintStream out) throws IOException {
+		final Hierarchy hierarchy = generator.generate(directory);
+		try {
+			out.println("uncached " + ResolutionScaling.measure(hierarchy, new GenericsResolver(), arity, rounds));
+			out.println("cached   " + ResolutionScaling.measure(hierarchy, new GenericsResolver(new ResolutionCache()), arity, rounds));
+		} finally {
+			hierarchy.close();
+		}
+	}
+}
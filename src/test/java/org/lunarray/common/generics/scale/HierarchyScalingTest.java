@@ -0,0 +1,161 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.lunarray.common.generics.GenericsResolver;
+import org.lunarray.common.generics.cache.ResolutionCache;
+import org.lunarray.common.generics.scale.HierarchyGenerator.Hierarchy;
+import org.lunarray.common.generics.scale.ResolutionScaling.Measurement;
+
+/**
+ * Tests resolution over generated hierarchies. The scaling check generates
+ * tens of thousands of classes and only runs if the system property
+ * {@value #SCALING_PROPERTY} is set to true. For reports, see
+ * {@link HierarchyScaling}.
+ * 
+ * @author agent (agent@local)
+ */
+public class HierarchyScalingTest {
+
+	/** The system property enabling the scaling check. */
+	public static final String SCALING_PROPERTY = "org.lunarray.common.scaling";
+	/** The amount of timed rounds. */
+	private static final int ROUNDS = 5;
+
+	/** The working directory. */
+	private File directory;
+
+	/**
+	 * Creates the working directory.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the directory could not be created.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		Assume.assumeTrue("No system compiler.", HierarchyGenerator.isAvailable());
+		this.directory = Files.createTempDirectory("hierarchy").toFile();
+	}
+
+	/**
+	 * Removes the working directory.
+	 */
+	@After
+	public void tearDown() {
+		HierarchyGenerator.delete(this.directory);
+	}
+
+	/**
+	 * Test resolving all leaves of a deep hierarchy.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the hierarchy could not be generated.
+	 */
+	@Test
+	public void testResolveDeepHierarchy() throws IOException {
+		final Hierarchy hierarchy = new HierarchyGenerator(64, 1, 2, false, 0, 0).generate(new File(this.directory, "deep"));
+		try {
+			HierarchyScalingTest.assertResolved(hierarchy, new GenericsResolver(), 2);
+			HierarchyScalingTest.assertResolved(hierarchy, new GenericsResolver(new ResolutionCache()), 2);
+		} finally {
+			hierarchy.close();
+		}
+	}
+
+	/**
+	 * Test resolving all leaves of a mixed hierarchy.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the hierarchy could not be generated.
+	 */
+	@Test
+	public void testResolveMixedHierarchy() throws IOException {
+		final Hierarchy hierarchy = new HierarchyGenerator(3, 3, 3, true, 4, 2).generate(new File(this.directory, "mixed"));
+		try {
+			HierarchyScalingTest.assertResolved(hierarchy, new GenericsResolver(), 3);
+			HierarchyScalingTest.assertResolved(hierarchy, new GenericsResolver(new ResolutionCache()), 3);
+		} finally {
+			hierarchy.close();
+		}
+	}
+
+	/**
+	 * Test the time per resolution grows less than linearly with the class
+	 * count, so total resolution time stays sub-quadratic.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a hierarchy could not be generated.
+	 */
+	@Test
+	public void testScaleClassCount() throws IOException {
+		Assume.assumeTrue(Boolean.getBoolean(HierarchyScalingTest.SCALING_PROPERTY));
+		final Measurement small = this.measure(8);
+		final Measurement large = this.measure(27);
+		final long classRatio = large.getClassCount() / small.getClassCount();
+		Assert.assertTrue(large.getPathNanos() < (small.getPathNanos() * classRatio));
+		Assert.assertTrue(large.getEntityNanos() < (small.getEntityNanos() * classRatio));
+	}
+
+	/**
+	 * Asserts all leaves resolve to the bound types.
+	 * 
+	 * @param hierarchy
+	 *            The hierarchy.
+	 * @param resolver
+	 *            The resolver.
+	 * @param arity
+	 *            The amount of type parameters.
+	 */
+	private static void assertResolved(final Hierarchy hierarchy, final GenericsResolver resolver, final int arity) {
+		for (final Class<?> leaf : hierarchy.getLeaves()) {
+			for (int i = 0; i < arity; i = i + 1) {
+				Assert.assertEquals(leaf.getName(), HierarchyGenerator.getArgument(i),
+						resolver.getEntityGenericType(leaf, i, hierarchy.getRoot()));
+			}
+		}
+	}
+
+	/**
+	 * Measures uncached resolution over a hierarchy of depth three.
+	 * 
+	 * @param fanOut
+	 *            The fan-out.
+	 * @return The measurement.
+	 * @throws IOException
+	 *             Thrown if the hierarchy could not be generated.
+	 */
+	private Measurement measure(final int fanOut) throws IOException {
+		final Hierarchy hierarchy = new HierarchyGenerator(3, fanOut, 2, false, 0, 1).generate(new File(this.directory, "width"
+				+ fanOut));
+		try {
+			HierarchyScalingTest.assertResolved(hierarchy, new GenericsResolver(), 2);
+			return ResolutionScaling.measure(hierarchy, new GenericsResolver(), 2, HierarchyScalingTest.ROUNDS);
+		} finally {
+			hierarchy.close();
+		}
+	}
+}
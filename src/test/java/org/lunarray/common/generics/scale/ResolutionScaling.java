@@ -0,0 +1,198 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.scale;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.lunarray.common.generics.GenericsResolver;
+import org.lunarray.common.generics.scale.HierarchyGenerator.Hierarchy;
+
+/**
+ * Measures how resolution over a generated hierarchy scales, for the opt-in
+ * scaling check and {@link HierarchyScaling}. Timings are wall
+ * clock averages and retained memory is estimated from the used heap, so both
+ * are indicative only.
+ * 
+ * @author agent (agent@local)
+ */
+public enum ResolutionScaling {
+
+	/** Instance. */
+	INSTANCE;
+
+	/**
+	 * Measures resolution over all leaves of the hierarchy.
+	 * 
+	 * @param hierarchy
+	 *            The hierarchy.
+	 * @param resolver
+	 *            The resolver to measure, resolves the leaves for the first
+	 *            time.
+	 * @param arity
+	 *            The amount of type parameters of the root.
+	 * @param rounds
+	 *            The amount of timed rounds.
+	 * @return The measurement.
+	 */
+	public static Measurement measure(final Hierarchy hierarchy, final GenericsResolver resolver, final int arity, final int rounds) {
+		final Class<?> root = hierarchy.getRoot();
+		final List<Class<?>> leaves = hierarchy.getLeaves();
+		// The first pass is measured for retained memory.
+		final List<Object> retained = new ArrayList<Object>(leaves.size());
+		final long before = ResolutionScaling.usedMemory();
+		int maximumPath = 0;
+		for (final Class<?> leaf : leaves) {
+			final Deque<Type> path = resolver.findTypePath(leaf, root);
+			maximumPath = Math.max(maximumPath, path.size());
+			retained.add(path);
+			retained.add(resolver.getEntityGenericType(leaf, 0, root));
+		}
+		final long retainedBytes = Math.max(ResolutionScaling.usedMemory() - before, 0);
+		long start = System.nanoTime();
+		for (int r = 0; r < rounds; r = r + 1) {
+			for (final Class<?> leaf : leaves) {
+				resolver.findTypePath(leaf, root);
+			}
+		}
+		final long pathNanos = System.nanoTime() - start;
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r = r + 1) {
+			for (final Class<?> leaf : leaves) {
+				for (int i = 0; i < arity; i = i + 1) {
+					resolver.getEntityGenericType(leaf, i, root);
+				}
+			}
+		}
+		final long entityNanos = System.nanoTime() - start;
+		final long queries = (long) rounds * leaves.size();
+		return new Measurement(hierarchy.getClassCount(), hierarchy.getDepth(), maximumPath, pathNanos / queries, entityNanos
+				/ (queries * arity), retainedBytes / Math.max(retained.size() / 2, 1));
+	}
+
+	/**
+	 * Estimates the used heap.
+	 * 
+	 * @return The used heap in bytes.
+	 */
+	private static long usedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * A measurement.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	public static final class Measurement {
+		/** The amount of generated types. */
+		private final transient int classCount;
+		/** The depth of the leaves. */
+		private final transient int depth;
+		/** The average time of an entity type resolution. */
+		private final transient long entityNanos;
+		/** The longest type path. */
+		private final transient int maximumPath;
+		/** The average time of a type path search. */
+		private final transient long pathNanos;
+		/** The retained memory per leaf. */
+		private final transient long retainedBytes;
+
+		/**
+		 * Constructs the measurement.
+		 * 
+		 * @param classCount
+		 *            The amount of generated types.
+		 * @param depth
+		 *            The depth of the leaves.
+		 * @param maximumPath
+		 *            The longest type path.
+		 * @param pathNanos
+		 *            The average time of a type path search.
+		 * @param entityNanos
+		 *            The average time of an entity type resolution.
+		 * @param retainedBytes
+		 *            The retained memory per leaf.
+		 */
+		public Measurement(final int classCount, final int depth, final int maximumPath, final long pathNanos, final long entityNanos,
+				final long retainedBytes) {
+			this.classCount = classCount;
+			this.depth = depth;
+			this.maximumPath = maximumPath;
+			this.pathNanos = pathNanos;
+			this.entityNanos = entityNanos;
+			this.retainedBytes = retainedBytes;
+		}
+
+		/**
+		 * Gets the value for the class count field.
+		 * 
+		 * @return The value for the class count field.
+		 */
+		public int getClassCount() {
+			return this.classCount;
+		}
+
+		/**
+		 * Gets the value for the entity nanos field.
+		 * 
+		 * @return The value for the entity nanos field.
+		 */
+		public long getEntityNanos() {
+			return this.entityNanos;
+		}
+
+		/**
+		 * Gets the value for the maximum path field.
+		 * 
+		 * @return The value for the maximum path field.
+		 */
+		public int getMaximumPath() {
+			return this.maximumPath;
+		}
+
+		/**
+		 * Gets the value for the path nanos field.
+		 * 
+		 * @return The value for the path nanos field.
+		 */
+		public long getPathNanos() {
+			return this.pathNanos;
+		}
+
+		/**
+		 * Gets the value for the retained bytes field.
+		 * 
+		 * @return The value for the retained bytes field.
+		 */
+		public long getRetainedBytes() {
+			return this.retainedBytes;
+		}
+
+		/** {@inheritDoc} */
+		@Override
+		public String toString() {
+			return String.format("classes=%d depth=%d path=%d findTypePath=%dns getEntityGenericType=%dns retained=%dB/leaf",
+					this.classCount, this.depth, this.maximumPath, this.pathNanos, this.entityNanos, this.retainedBytes);
+		}
+	}
+}
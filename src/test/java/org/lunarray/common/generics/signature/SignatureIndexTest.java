@@ -0,0 +1,291 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.signature;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests resolving generics from class files.
+ * 
+ * @author agent (agent@local)
+ */
+public class SignatureIndexTest {
+
+	/** The internal name of the test. */
+	private static final String PREFIX = "org/lunarray/common/generics/signature/SignatureIndexTest$";
+
+	/** The index. */
+	private SignatureIndex index;
+
+	/**
+	 * Opens an index over the test classes.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the index could not be opened.
+	 */
+	@Before
+	public void setUp() throws IOException {
+		this.index = new SignatureIndex(SignatureIndexTest.class.getClassLoader());
+	}
+
+	/**
+	 * Closes the index.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the index could not be closed.
+	 */
+	@After
+	public void tearDown() throws IOException {
+		this.index.close();
+	}
+
+	/**
+	 * Test type parameters with only interface bounds are skipped.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	@Test
+	public void testInterfaceBound() throws IOException {
+		final ClassSignature signature = this.index.getClassSignature(SignatureIndexTest.PREFIX + "Bounded");
+		Assert.assertEquals(1, signature.getTypeParameters().size());
+		Assert.assertEquals("T", signature.getTypeParameters().get(0));
+		Assert.assertEquals("Lorg/lunarray/common/generics/signature/SignatureIndexTest$Base<TT;>;", signature.getSuperclass()
+				.toString());
+		Assert.assertEquals("Ljava/lang/String;", this.resolve("BoundedString", "Base").toString());
+	}
+
+	/**
+	 * Test parsing the signature of an inner class of a generic class.
+	 */
+	@Test
+	public void testInnerClassSignature() {
+		final ClassSignature signature = new SignatureParser("<U:Ljava/lang/Object;>LOuter<TT;>.Inner<TU;>;")
+				.parseClassSignature("Sub");
+		Assert.assertEquals("LOuter$Inner<TU;>;", signature.getSuperclass().toString());
+	}
+
+	/**
+	 * Test resolving through an inner class of a generic class.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	@Test
+	public void testInnerClassSupertype() throws IOException {
+		Assert.assertEquals("Ljava/lang/Integer;", this.resolve("Outer$Sub", "Outer$Inner").toString());
+	}
+
+	/**
+	 * Test long and double constants, taking two pool entries each, are read
+	 * past.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	@Test
+	public void testLongConstants() throws IOException {
+		Assert.assertEquals(1L << 40, Constants.LONG);
+		Assert.assertEquals("Ljava/lang/String;", this.resolve("Constants", "Base").toString());
+	}
+
+	/**
+	 * Test a type variable is not leaked through a raw supertype.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	@Test
+	public void testRawSupertype() throws IOException {
+		Assert.assertNull(this.resolve("Raw", "Repository"));
+		Assert.assertEquals("Ljava/util/List;", this.resolve("RawHolder", "Base").toString());
+	}
+
+	/**
+	 * Test resolving through superinterfaces of superinterfaces.
+	 * 
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	@Test
+	public void testSuperinterfaces() throws IOException {
+		final List<TypeSignature> path = this.index.findTypePath(SignatureIndexTest.PREFIX + "StringRepository",
+				SignatureIndexTest.PREFIX + "Repository");
+		Assert.assertEquals(3, path.size());
+		Assert.assertEquals("Ljava/lang/String;", this.resolve("StringRepository", "Repository").toString());
+		Assert.assertEquals("TE;", this.resolve("NamedRepository", "Repository").toString());
+	}
+
+	/**
+	 * Resolves the first argument of a target.
+	 * 
+	 * @param className
+	 *            The simple name of the nested class.
+	 * @param targetName
+	 *            The simple name of the nested target.
+	 * @return The argument.
+	 * @throws IOException
+	 *             Thrown if a class file could not be read.
+	 */
+	private TypeSignature resolve(final String className, final String targetName) throws IOException {
+		return this.index.getEntityGenericType(SignatureIndexTest.PREFIX + className, 0, SignatureIndexTest.PREFIX + targetName);
+	}
+
+	/**
+	 * A generic base.
+	 * 
+	 * @param <T>
+	 *            The type.
+	 */
+	public static class Base<T> {
+		// Fixture.
+	}
+
+	/**
+	 * A base with an interface bound only.
+	 * 
+	 * @param <T>
+	 *            The type.
+	 */
+	public static class Bounded<T extends Comparable<T>>
+			extends Base<T> {
+		// Fixture.
+	}
+
+	/**
+	 * Binds a base with an interface bound.
+	 */
+	public static class BoundedString
+			extends Bounded<String> {
+		// Fixture.
+	}
+
+	/**
+	 * Holds long and double constants.
+	 */
+	public static class Constants
+			extends Base<String> {
+		/** A double constant. */
+		public static final double DOUBLE = 2.5d;
+		/** A long constant. */
+		public static final long LONG = 1L << 40;
+		/** A string constant following them in the pool. */
+		public static final String STRING = "constant";
+	}
+
+	/**
+	 * A base of a list.
+	 * 
+	 * @param <T>
+	 *            The element type.
+	 */
+	public static class Holder<T>
+			extends Base<List<T>> {
+		// Fixture.
+	}
+
+	/**
+	 * A named repository.
+	 * 
+	 * @param <E>
+	 *            The entity type.
+	 */
+	public interface NamedRepository<E>
+			extends Repository<E> {
+		// Fixture.
+	}
+
+	/**
+	 * An outer class.
+	 * 
+	 * @param <T>
+	 *            The outer type.
+	 */
+	public static class Outer<T> {
+		/**
+		 * An inner class.
+		 * 
+		 * @param <U>
+		 *            The inner type.
+		 */
+		public class Inner<U> {
+			// Fixture.
+		}
+
+		/**
+		 * Binds the inner class.
+		 */
+		public class Sub
+				extends Inner<Integer> {
+			// Fixture.
+		}
+	}
+
+	/**
+	 * Extends a generic class raw.
+	 */
+	@SuppressWarnings("rawtypes")
+	public static class Raw
+			extends RepositoryBase {
+		// Fixture.
+	}
+
+	/**
+	 * Extends a holder raw.
+	 */
+	@SuppressWarnings("rawtypes")
+	public static class RawHolder
+			extends Holder {
+		// Fixture.
+	}
+
+	/**
+	 * A repository.
+	 * 
+	 * @param <E>
+	 *            The entity type.
+	 */
+	public interface Repository<E> {
+		// Fixture.
+	}
+
+	/**
+	 * A repository base.
+	 * 
+	 * @param <E>
+	 *            The entity type.
+	 */
+	public abstract static class RepositoryBase<E>
+			implements Repository<E> {
+		// Fixture.
+	}
+
+	/**
+	 * Binds a repository through a superinterface.
+	 */
+	public static class StringRepository
+			implements NamedRepository<String> {
+		// Fixture.
+	}
+}
@@ -0,0 +1,112 @@
+/* 
+ * Commons.
+ * Copyright (C) 2013 Christian van der Stap (christian@lunarray.org)
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.lunarray.common.generics.warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.lunarray.common.generics.GenericsResolver;
+import org.lunarray.common.generics.Member;
+import org.lunarray.common.generics.impl.MemberMethod;
+
+/**
+ * Tests recording and replaying resolutions.
+ * 
+ * @author agent (agent@local)
+ */
+public class ResolutionReplayTest {
+
+	/**
+	 * Test an encoded member with array parameters decodes to itself.
+	 * 
+	 * @throws ReflectiveOperationException
+	 *             Thrown if the member could not be decoded.
+	 */
+	@Test
+	public void testArrayParameterRoundTrip() throws ReflectiveOperationException {
+		final MemberMethod member = new MemberMethod(ResolutionReplayTest.getSetter(), 1);
+		final String encoded = RecordFormat.encode(member);
+		Assert.assertEquals(-1, encoded.indexOf(RecordFormat.MEMBER_SEPARATOR));
+		Assert.assertEquals(member, RecordFormat.decode(encoded, this.getClass().getClassLoader()));
+	}
+
+	/**
+	 * Test chains through methods with array parameters are replayed.
+	 * 
+	 * @throws IOException
+	 *             Thrown if the records could not be written.
+	 * @throws InterruptedException
+	 *             Thrown if interrupted.
+	 */
+	@Test
+	public void testReplayArrayParameters() throws IOException, InterruptedException {
+		final ResolutionRecorder recorder = new ResolutionRecorder();
+		final List<Member> chain = Collections.<Member> singletonList(new MemberMethod(ResolutionReplayTest.getSetter(), 1));
+		recorder.recordPropertyGenericType(List.class, 0, chain);
+		recorder.recordRealType(Collections.<Member> singletonList(new MemberMethod(ResolutionReplayTest.getSetter(), 0)));
+		final StringWriter writer = new StringWriter();
+		recorder.write(writer);
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Assert.assertEquals(2, ResolutionReplay.replay(new GenericsResolver(), new StringReader(writer.toString()), this.getClass()
+					.getClassLoader(), executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Gets the setter of the fixture.
+	 * 
+	 * @return The setter.
+	 */
+	private static Method getSetter() {
+		try {
+			return Fixture.class.getDeclaredMethod("set", String[].class, List.class);
+		} catch (final NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * A fixture with array parameters.
+	 * 
+	 * @author agent (agent@local)
+	 */
+	public static final class Fixture {
+		/**
+		 * Sets values.
+		 * 
+		 * @param values
+		 *            The values.
+		 * @param list
+		 *            The list.
+		 */
+		public void set(final String[] values, final List<String> list) {
+			// Fixture.
+		}
+	}
+}